@@ -0,0 +1,54 @@
+package edu.kit.kastel.vads.compiler;
+
+import java.util.Arrays;
+
+/// Maps offsets in a source file to lines and columns.
+/// The lexer records where each line starts, so positions can be stored as plain offsets
+/// and only need to be resolved when they are actually displayed.
+/// Both `\n` and `\r` start a new line; lines and columns are counted from 0.
+public final class LineMap {
+    private int[] lineStarts = new int[64];
+    private int lineCount = 1;
+
+    /// Records that a new line starts at the given offset.
+    /// Offsets must be added in increasing order.
+    public void addLineStart(int offset) {
+        assert offset > this.lineStarts[this.lineCount - 1] : "line starts must be increasing";
+        if (this.lineCount == this.lineStarts.length) {
+            this.lineStarts = Arrays.copyOf(this.lineStarts, this.lineCount * 2);
+        }
+        this.lineStarts[this.lineCount++] = offset;
+    }
+
+    /// {@return a copy that only contains the line starts before the given offset}
+    public LineMap prefix(int offset) {
+        LineMap copy = new LineMap();
+        copy.lineCount = line(Math.max(0, offset - 1)) + 1;
+        copy.lineStarts = Arrays.copyOf(this.lineStarts, Math.max(copy.lineCount, this.lineStarts.length));
+        return copy;
+    }
+
+    /// Adds the line starts of `other` that are after the given offset, shifted by `delta`.
+    public void addShifted(LineMap other, int after, int delta) {
+        addShifted(other, after, Integer.MAX_VALUE, delta);
+    }
+
+    /// Adds the line starts of `other` in `(after, until]`, shifted by `delta`.
+    public void addShifted(LineMap other, int after, int until, int delta) {
+        for (int i = other.line(after) + 1; i < other.lineCount && other.lineStarts[i] <= until; i++) {
+            addLineStart(other.lineStarts[i] + delta);
+        }
+    }
+
+    /// {@return the line the given offset is located in}
+    public int line(int offset) {
+        int index = Arrays.binarySearch(this.lineStarts, 0, this.lineCount, offset);
+        // a negative result encodes the insertion point, the line before it contains the offset
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /// {@return the column of the given offset within its line}
+    public int column(int offset) {
+        return offset - this.lineStarts[line(offset)];
+    }
+}
@@ -2,30 +2,44 @@ package edu.kit.kastel.vads.compiler;
 
 import edu.kit.kastel.vads.compiler.backend.x86.X86CodeGenerator;
 import edu.kit.kastel.vads.compiler.backend.x86.X86Program;
+import edu.kit.kastel.vads.compiler.ir.DirectSsaTranslation;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.optimize.AlgebraicSimplification;
+import edu.kit.kastel.vads.compiler.ir.optimize.ConstantFolding;
 import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
 import edu.kit.kastel.vads.compiler.ir.util.YCompPrinter;
 import edu.kit.kastel.vads.compiler.ir.util.LivenessPrinter;
 import edu.kit.kastel.vads.compiler.ir.passes.analysis.LivenessAnalysis;
+import edu.kit.kastel.vads.compiler.ir.passes.transform.GlobalValueNumbering;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
 import edu.kit.kastel.vads.compiler.parser.ParseException;
+import edu.kit.kastel.vads.compiler.parser.ParseTarget;
 import edu.kit.kastel.vads.compiler.parser.Parser;
 import edu.kit.kastel.vads.compiler.parser.Printer;
 import edu.kit.kastel.vads.compiler.parser.TokenSource;
-import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 import edu.kit.kastel.vads.compiler.semantic.SemanticAnalysis;
 import edu.kit.kastel.vads.compiler.semantic.SemanticException;
 
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 
 public class Main {
+    /// Sources of at least this many bytes are lexed in parallel, in chunks of this size.
+    private static final int PARALLEL_LEXING_CHUNK_SIZE = 1 << 20;
+
     public static void main(String[] args) throws IOException {
         if (args.length != 2) {
             System.err.println("Invalid arguments: Expected one input file and one output file");
@@ -35,24 +49,17 @@ public class Main {
         Path input = Path.of(args[0]);
         Path output = Path.of(args[1]);
 
-        ProgramTree program = lexAndParse(input);
-
-        System.out.println(Printer.print(program));
-
-        try {
-            new SemanticAnalysis(program).analyze();
-        } catch (SemanticException e) {
-            e.printStackTrace();
-            System.exit(7);
-        }
-
-        // Each top-level tree is a function, which will be translated into its own
-        // IrGraph.
-        List<IrGraph> graphs = program.topLevelTrees().stream()
-                .map(f -> new SsaTranslation(f, new LocalValueNumbering()).translate())
+        // release builds can skip attaching source spans to the IR
+        boolean debugInfo = !"off".equals(System.getenv("DEBUG_INFO")) && !"off".equals(System.getProperty("debugInfo"));
+        List<IrGraph> graphs = "fast".equals(System.getenv("COMPILE_MODE"))
+            || "fast".equals(System.getProperty("compileMode"))
+            ? translateWhileParsing(input, debugInfo)
+            : translate(input, debugInfo);
+        graphs = graphs.parallelStream()
+                .map(graph -> new GlobalValueNumbering().transform(graph))
                 .toList();
 
-        var livenessResults = graphs.stream()
+        var livenessResults = graphs.parallelStream()
                 .map(graph -> {
                     LivenessAnalysis livenessAnalysis = new LivenessAnalysis();
                     livenessAnalysis.analyze(graph);
@@ -75,12 +82,68 @@ public class Main {
         x86Program.compile(output);
     }
 
-    private static ProgramTree lexAndParse(Path input) throws IOException {
+    private static List<IrGraph> translate(Path input, boolean debugInfo) throws IOException {
+        FlatAst program = lexAndParse(input);
+
+        System.out.println(Printer.print(program.toTree()));
+
         try {
-            Lexer lexer = Lexer.forString(Files.readString(input));
-            TokenSource tokenSource = new TokenSource(lexer);
-            Parser parser = new Parser(tokenSource);
-            return parser.parseProgram();
+            new SemanticAnalysis(program).analyze();
+        } catch (SemanticException e) {
+            e.printStackTrace();
+            System.exit(7);
+        }
+
+        // Each top-level tree is a function, which will be translated into its own
+        // IrGraph. Functions are independent, so they are translated in parallel.
+        List<Integer> functions = new ArrayList<>();
+        for (int f = program.firstChild(program.root()); f != FlatAst.NONE; f = program.nextSibling(f)) {
+            functions.add(f);
+        }
+        return functions.parallelStream()
+                .map(f -> new SsaTranslation(program, f, optimizer(), debugInfo).translate())
+                .toList();
+    }
+
+    /// Translates the program while it is parsed, the AST is never built and thus not printed.
+    private static List<IrGraph> translateWhileParsing(Path input, boolean debugInfo) throws IOException {
+        DirectSsaTranslation translation = new DirectSsaTranslation(Main::optimizer, debugInfo);
+        parse(input, translation);
+        try {
+            return translation.graphs();
+        } catch (SemanticException e) {
+            e.printStackTrace();
+            System.exit(7);
+            throw new AssertionError("unreachable");
+        }
+    }
+
+    /// {@return the optimizer of a new graph}
+    /// Constants are folded first, so value numbering sees the simplified nodes.
+    private static Optimizer optimizer() {
+        return new ConstantFolding()
+            .andThen(new AlgebraicSimplification())
+            .andThen(new LocalValueNumbering());
+    }
+
+    private static FlatAst lexAndParse(Path input) throws IOException {
+        FlatAst.Builder builder = new FlatAst.Builder();
+        return builder.build(parse(input, builder));
+    }
+
+    private static int parse(Path input, ParseTarget target) throws IOException {
+        // the file is lexed directly from the mapped bytes, the parse result does not reference them anymore
+        // the arena is shared, so large files can be lexed in parallel
+        try (Arena arena = Arena.ofShared();
+             FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            MemorySegment source = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            Lexer lexer = Lexer.forBytes(source);
+            if (source.byteSize() >= PARALLEL_LEXING_CHUNK_SIZE) {
+                // only a few chunks are lexed ahead of the parser, so the tokens are still streamed
+                lexer.lexInParallel(PARALLEL_LEXING_CHUNK_SIZE);
+            }
+            Parser parser = new Parser(TokenSource.streaming(lexer), target);
+            return parser.parse();
         } catch (ParseException e) {
             e.printStackTrace();
             System.exit(42);
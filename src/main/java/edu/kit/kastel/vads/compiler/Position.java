@@ -10,4 +10,22 @@ public sealed interface Position {
       return line() + ":" + column();
     }
   }
+
+  /// A position that is only resolved to a line and column when requested.
+  record OffsetPosition(LineMap lines, int offset) implements Position {
+    @Override
+    public int line() {
+      return lines().line(offset());
+    }
+
+    @Override
+    public int column() {
+      return lines().column(offset());
+    }
+
+    @Override
+    public String toString() {
+      return line() + ":" + column();
+    }
+  }
 }
@@ -17,4 +17,31 @@ public sealed interface Span {
             return "[" + start() + "|" + end() + "]";
         }
     }
+
+    /// A span that only stores source offsets, see [LineMap].
+    /// Its positions are created and resolved on demand.
+    record SourceSpan(LineMap lines, int startOffset, int endOffset) implements Span {
+        @Override
+        public Position start() {
+            return new Position.OffsetPosition(lines(), startOffset());
+        }
+
+        @Override
+        public Position end() {
+            return new Position.OffsetPosition(lines(), endOffset());
+        }
+
+        @Override
+        public Span merge(Span later) {
+            if (later instanceof SourceSpan(LineMap laterLines, _, int laterEnd) && laterLines == lines()) {
+                return new SourceSpan(lines(), startOffset(), laterEnd);
+            }
+            return new SimpleSpan(start(), later.end());
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start() + "|" + end() + "]";
+        }
+    }
 }
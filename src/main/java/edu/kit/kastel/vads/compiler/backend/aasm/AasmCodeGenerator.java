@@ -19,10 +19,8 @@ import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import edu.kit.kastel.vads.compiler.ir.node.SubNode;
 
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import static edu.kit.kastel.vads.compiler.ir.util.NodeSupport.predecessorSkipProj;
 
@@ -43,17 +41,12 @@ public class AasmCodeGenerator implements CodeGenerator {
     }
 
     private void generateForGraph(IrGraph graph, StringBuilder builder, Map<Node, Location> registers) {
-        Set<Node> visited = new HashSet<>();
-        scan(graph.endBlock(), visited, builder, registers);
-    }
-
-    private void scan(Node node, Set<Node> visited, StringBuilder builder, Map<Node, Location> registers) {
-        for (Node predecessor : node.predecessors()) {
-            if (visited.add(predecessor)) {
-                scan(predecessor, visited, builder, registers);
-            }
+        for (Node node : graph.nodesInReversePostOrder()) {
+            generateForNode(node, builder, registers);
         }
+    }
 
+    private void generateForNode(Node node, StringBuilder builder, Map<Node, Location> registers) {
         switch (node) {
             case AddNode add -> binary(builder, registers, add, "add");
             case SubNode sub -> binary(builder, registers, sub, "sub");
@@ -9,42 +9,55 @@ import edu.kit.kastel.vads.compiler.backend.regalloc.Location;
 import edu.kit.kastel.vads.compiler.backend.regalloc.StackSlot;
 import edu.kit.kastel.vads.compiler.backend.x86.ASMBuilder;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 public class X86CodeGenerator implements CodeGenerator {
 
     private static final String INDENT = "    ";
 
-    private X86Program program;
+    // the function that is emitted, each function is emitted by its own generator
+    private X86Function function;
+    // diagnostics of the function, printed once all functions are emitted
+    private final StringBuilder trace = new StringBuilder();
 
+    /// Allocates registers and emits code for each function in parallel on the common fork-join pool.
+    /// The functions and their diagnostics are added to the program in the order of the given graphs.
     public X86Program generateCode(List<IrGraph> programGraphs) {
-        program = new X86Program();
-        ASMBuilder asm = new ASMBuilder(INDENT);
-
+        X86Program program = new X86Program();
         program.addHeader(emitHeader());
 
-        for (IrGraph graph : programGraphs) {
-            Set<Node> visited = new HashSet<>();
-            visited.add(graph.endBlock());
-
-            var allocator = new X86RegisterAllocator();
-            Map<Node, Location> locations = allocator.allocateRegisters(graph);
-            int totalStackSize = allocator.getTotalAllocatedStackSize();
-            int alignedStackSpace = (totalStackSize + 15) & -16;
-
-            // TODO: check if name is correct for main function
-            String preamble = getFnPreamble(alignedStackSpace);
-            String postamble = getFnPostamble(alignedStackSpace);
-            program.startFunction(graph.name(), preamble, postamble);
-
-            emitCode(graph.endBlock(), visited, asm, locations);
+        List<X86CodeGenerator> generators = programGraphs.parallelStream()
+                .map(graph -> {
+                    X86CodeGenerator generator = new X86CodeGenerator();
+                    generator.generateFunction(graph);
+                    return generator;
+                })
+                .toList();
+        for (X86CodeGenerator generator : generators) {
+            System.out.print(generator.trace);
+            program.addFunction(generator.function);
         }
         return program;
     }
 
+    private void generateFunction(IrGraph graph) {
+        ASMBuilder asm = new ASMBuilder(INDENT);
+        var allocator = new X86RegisterAllocator();
+        Map<Node, Location> locations = allocator.allocateRegisters(graph);
+        int totalStackSize = allocator.getTotalAllocatedStackSize();
+        int alignedStackSpace = (totalStackSize + 15) & -16;
+
+        // TODO: check if name is correct for main function
+        String preamble = getFnPreamble(alignedStackSpace);
+        String postamble = getFnPostamble(alignedStackSpace);
+        function = new X86Function(graph.name(), preamble, postamble);
+
+        for (Node node : graph.nodesInReversePostOrder()) {
+            emitCode(node, asm, locations);
+        }
+    }
+
     private String emitHeader() {
         return String.format("""
                 .intel_syntax noprefix
@@ -81,14 +94,7 @@ public class X86CodeGenerator implements CodeGenerator {
         return asm.toString();
     }
 
-    private void emitCode(Node node, Set<Node> visited,
-            ASMBuilder asm, Map<Node, Location> locations) {
-        for (Node predecessor : node.predecessors()) {
-            if (visited.add(predecessor)) {
-                emitCode(predecessor, visited, asm, locations);
-            }
-        }
-
+    private void emitCode(Node node, ASMBuilder asm, Map<Node, Location> locations) {
         switch (node) {
             case AddNode add -> emitBinaryOp(add, X86Operation.ADD, locations);
             case SubNode sub -> emitBinaryOp(sub, X86Operation.SUB, locations);
@@ -128,25 +134,25 @@ public class X86CodeGenerator implements CodeGenerator {
     private void emitMoveImmToMem(StackSlot slot, int immVal) {
         Operand imm = new ImmediateOperand(immVal);
         Operand mem = new MemoryOperand(slot);
-        program.addInstruction(new X86Instruction(X86Operation.MOV, mem, imm));
+        function.addInstruction(new X86Instruction(X86Operation.MOV, mem, imm));
     }
 
     private void emitMoveImmToReg(X86Register register, int immVal) {
         Operand imm = new ImmediateOperand(immVal);
         Operand reg = new RegisterOperand(register);
-        program.addInstruction(new X86Instruction(X86Operation.MOV, reg, imm));
+        function.addInstruction(new X86Instruction(X86Operation.MOV, reg, imm));
     }
 
     private void emitMoveMemToReg(X86Register register, StackSlot slot) {
         Operand mem = new MemoryOperand(slot);
         Operand reg = new RegisterOperand(register);
-        program.addInstruction(new X86Instruction(X86Operation.MOV, reg, mem));
+        function.addInstruction(new X86Instruction(X86Operation.MOV, reg, mem));
     }
 
     private void emitMoveRegToMem(StackSlot slot, X86Register register) {
         Operand reg = new RegisterOperand(register);
         Operand mem = new MemoryOperand(slot);
-        program.addInstruction(new X86Instruction(X86Operation.MOV, mem, reg));
+        function.addInstruction(new X86Instruction(X86Operation.MOV, mem, reg));
     }
 
     private void emitMoveRegToReg(X86Register dest, X86Register src) {
@@ -156,7 +162,7 @@ public class X86CodeGenerator implements CodeGenerator {
         }
         Operand srcReg = new RegisterOperand(src);
         Operand destReg = new RegisterOperand(dest);
-        program.addInstruction(new X86Instruction(X86Operation.MOV, destReg, srcReg));
+        function.addInstruction(new X86Instruction(X86Operation.MOV, destReg, srcReg));
     }
 
     private void emitDiv(DivNode div, Map<Node, Location> locations) {
@@ -195,7 +201,7 @@ public class X86CodeGenerator implements CodeGenerator {
         Location rightLoc = locations.get(right);
         Location resultLoc = locations.get(divOrMod);
 
-        System.out.printf("Result location for %s: %s%n", op, resultLoc);
+        trace.append(String.format("Result location for %s: %s%n", op, resultLoc));
 
         Operand leftOperand = nodeToOperand(left, locations);
         Operand rightOperand = nodeToOperand(right, locations);
@@ -211,9 +217,9 @@ public class X86CodeGenerator implements CodeGenerator {
             emitMoveImmToReg(X86Register.SCRATCH_32, rightImm.value());
         }
 
-        program.addInstruction(new X86Instruction(X86Operation.CDQ));
+        function.addInstruction(new X86Instruction(X86Operation.CDQ));
 
-        program.addInstruction(new X86Instruction(
+        function.addInstruction(new X86Instruction(
                 X86Operation.IDIV,
                 rightOperand));
 
@@ -235,7 +241,7 @@ public class X86CodeGenerator implements CodeGenerator {
         Location rightLoc = locations.get(right);
         Location resultLoc = locations.get(opNode);
 
-        System.out.printf("Result location for %s: %s%n", op, resultLoc);
+        trace.append(String.format("Result location for %s: %s%n", op, resultLoc));
 
         // The left operand's value is moved into the resultLoc (the register that will
         // hold the operation's result) before the operation.
@@ -261,7 +267,7 @@ public class X86CodeGenerator implements CodeGenerator {
 
         // Operation on the operation register with the right operand
         // no special handling required as one Operand is always a register
-        program.addInstruction(new X86Instruction(
+        function.addInstruction(new X86Instruction(
                 op,
                 new RegisterOperand(opRegister),
                 rightOperand));
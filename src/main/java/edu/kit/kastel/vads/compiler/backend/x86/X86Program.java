@@ -28,6 +28,12 @@ public class X86Program implements AssemblyProgram {
         functions.add(currFn.get());
     }
 
+    /// Adds a function that was emitted on its own, see [#startFunction(String, String, String)].
+    public void addFunction(X86Function function) {
+        currFn = Optional.of(function);
+        functions.add(function);
+    }
+
     public void addInstruction(X86Instruction instr) {
         currFn.ifPresent(fn -> fn.addInstruction(instr));
     }
@@ -3,6 +3,7 @@ package edu.kit.kastel.vads.compiler.backend.x86;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.passes.analysis.InterferenceGraph;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
 import edu.kit.kastel.vads.compiler.backend.regalloc.RegisterAllocator;
 import edu.kit.kastel.vads.compiler.backend.regalloc.StackSlot;
 import edu.kit.kastel.vads.compiler.backend.regalloc.Location;
@@ -23,12 +24,13 @@ public class X86RegisterAllocator implements RegisterAllocator {
         List<X86Register> registers = new ArrayList<>(X86Register.allocatable32BitGPRs());
         // boolean spillNeeded = interferenceGraph.getMaxColor() >= registers.size();
 
-        return naiveAllocation(coloring, registers);
+        return naiveAllocation(graph, coloring, registers);
     }
 
     // All colors up to register.size() are used for registers, the rest is spilled
-    private Map<Node, Location> naiveAllocation(Map<Node, Integer> coloring, List<X86Register> registers) {
-        Map<Node, Location> allocation = new HashMap<>();
+    private Map<Node, Location> naiveAllocation(IrGraph graph, Map<Node, Integer> coloring,
+            List<X86Register> registers) {
+        Map<Node, Location> allocation = new NodeMap<>(graph);
         Map<Integer, StackSlot> stackSlots = getStackSlots(coloring, registers.size());
         for (Map.Entry<Node, Integer> entry : coloring.entrySet()) {
             Node node = entry.getKey();
@@ -0,0 +1,272 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ParseTarget;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.semantic.InlineSemanticAnalysis;
+import edu.kit.kastel.vads.compiler.semantic.SemanticException;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/// Translates a program into SSA while it is parsed, without building an AST.
+/// The semantic checks run inline, see [InlineSemanticAnalysis], and the [GraphConstructor] is called
+/// as soon as the parser completes a construct.
+///
+/// The resulting graphs are the same as the ones of the [SsaTranslation] after the [FlatAst] was analyzed,
+/// except that the start nodes of a function carry the span of its signature instead of the whole function.
+public class DirectSsaTranslation implements ParseTarget {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Supplier<Optimizer> optimizers;
+    private final boolean debugInfo;
+    private final InlineSemanticAnalysis analysis = new InlineSemanticAnalysis();
+    private final List<IrGraph> graphs = new ArrayList<>();
+
+    // the constructs of the current statement, addressed by handle
+    // names have a name, expressions have a value unless no code is generated for them
+    // spans of expressions are only merged if debug info is enabled
+    private @Nullable Node[] values = new Node[INITIAL_CAPACITY];
+    private @Nullable Name[] names = new Name[INITIAL_CAPACITY];
+    private @Nullable Span[] spans = new Span[INITIAL_CAPACITY];
+    private int count;
+
+    private @Nullable SsaTranslation function;
+    // the handles of the signature are reused by the body, so the name is kept until the function ends
+    private @Nullable Supplier<NameTree> functionName;
+    private int blockDepth;
+    // the depth of the block whose remaining statements follow a return, 0 if there is none
+    private int unreachableDepth;
+
+    /// @param optimizers creates the optimizer of each function
+    public DirectSsaTranslation(Supplier<Optimizer> optimizers) {
+        this(optimizers, true);
+    }
+
+    /// @param optimizers creates the optimizer of each function
+    /// @param debugInfo whether the nodes get the spans they were translated from as debug info
+    public DirectSsaTranslation(Supplier<Optimizer> optimizers, boolean debugInfo) {
+        this.optimizers = optimizers;
+        this.debugInfo = debugInfo;
+    }
+
+    /// {@return the graphs of all functions, in source order}
+    /// @throws SemanticException if the program is not valid
+    public List<IrGraph> graphs() {
+        this.analysis.finish();
+        return this.graphs;
+    }
+
+    @Override
+    public int program(int[] functions, int count) {
+        return FlatAst.NONE;
+    }
+
+    @Override
+    public void startFunction(int returnType, int name) {
+        this.functionName = nameTree(name);
+        this.function = new SsaTranslation(name(name).asString(), this.optimizers.get(), this.debugInfo);
+        if (generatesCode()) {
+            setSpan(merge(returnType, name));
+            this.function.startFunction();
+        }
+        this.count = 0;
+    }
+
+    @Override
+    public int function(int returnType, int name, int body) {
+        this.analysis.function(Objects.requireNonNull(this.functionName));
+        if (!this.analysis.failed()) {
+            this.graphs.add(Objects.requireNonNull(this.function).finish());
+        }
+        this.function = null;
+        this.functionName = null;
+        return FlatAst.NONE;
+    }
+
+    @Override
+    public void startBlock(Span open) {
+        this.blockDepth++;
+    }
+
+    @Override
+    public int block(Span open, Span close, int[] statements, int count) {
+        if (this.unreachableDepth == this.blockDepth) {
+            this.unreachableDepth = 0;
+        }
+        this.blockDepth--;
+        return FlatAst.NONE;
+    }
+
+    @Override
+    public int declaration(int type, int name, int initializer) {
+        Name variable = name(name);
+        this.analysis.declaration(variable.symbol(), initializer != FlatAst.NONE, nameTree(name));
+        if (initializer != FlatAst.NONE && generatesCode()) {
+            setSpan(merge(type, initializer));
+            SsaTranslation function = function();
+            function.writeVariable(variable.symbol(), function.currentBlock(), value(initializer));
+        }
+        return endStatement();
+    }
+
+    @Override
+    public int assignment(int lValue, Operator operator, int expression) {
+        Name variable = name(lValue);
+        this.analysis.assignment(variable.symbol(), operator.type(), nameTree(lValue));
+        if (generatesCode()) {
+            setSpan(merge(lValue, expression));
+            function().assign(variable.symbol(), operator.type(), value(expression));
+        }
+        return endStatement();
+    }
+
+    @Override
+    public int returnStatement(Span keyword, int expression) {
+        this.analysis.returnStatement();
+        if (generatesCode()) {
+            setSpan(merge(keyword, expression));
+            function().returnValue(value(expression));
+        }
+        // skip everything after a return in a block
+        if (this.unreachableDepth == 0) {
+            this.unreachableDepth = this.blockDepth;
+        }
+        return endStatement();
+    }
+
+    @Override
+    public int binaryOperation(int lhs, int rhs, OperatorType type) {
+        @Nullable Span span = merge(lhs, rhs);
+        @Nullable Node value = null;
+        if (generatesCode()) {
+            setSpan(span);
+            value = function().binaryOperation(type, value(lhs), value(rhs));
+        }
+        return add(value, null, span);
+    }
+
+    @Override
+    public int negate(Span minus, int expression) {
+        @Nullable Span span = merge(minus, expression);
+        @Nullable Node value = null;
+        if (generatesCode()) {
+            setSpan(span);
+            value = function().negate(value(expression));
+        }
+        return add(value, null, span);
+    }
+
+    @Override
+    public int literal(NumberLiteral literal) {
+        long parsed = LiteralTree.parse(literal.value(), literal.base());
+        this.analysis.literal(parsed, literal.value());
+        @Nullable Node value = null;
+        if (generatesCode()) {
+            setSpan(literal.span());
+            value = function().constant(parsed);
+        }
+        return add(value, null, literal.span());
+    }
+
+    @Override
+    public int identExpression(int name) {
+        Name variable = name(name);
+        this.analysis.identExpression(variable.symbol(), nameTree(name));
+        @Nullable Node value = null;
+        if (generatesCode()) {
+            setSpan(this.spans[name]);
+            SsaTranslation function = function();
+            value = function.readVariable(variable.symbol(), function.currentBlock());
+        }
+        return add(value, null, this.spans[name]);
+    }
+
+    @Override
+    public int lValueIdent(int name) {
+        return name;
+    }
+
+    @Override
+    public int name(Identifier identifier) {
+        return add(null, Name.forIdentifier(identifier), identifier.span());
+    }
+
+    @Override
+    public int type(Span span) {
+        return add(null, null, span);
+    }
+
+    // code is only generated for valid programs, and not for statements after a return
+    private boolean generatesCode() {
+        return this.unreachableDepth == 0 && !this.analysis.failed();
+    }
+
+    private SsaTranslation function() {
+        return Objects.requireNonNull(this.function);
+    }
+
+    private void setSpan(@Nullable Span span) {
+        if (span != null) {
+            function().debugContext().enter(span);
+        }
+    }
+
+    // the span from the start of the first construct to the end of the last one, null without debug info
+    private @Nullable Span merge(int first, int last) {
+        return merge(this.spans[first], last);
+    }
+
+    private @Nullable Span merge(@Nullable Span first, int last) {
+        @Nullable Span end = this.spans[last];
+        return this.debugInfo && first != null && end != null ? first.merge(end) : null;
+    }
+
+    // the constructs of a statement are not needed anymore once it is complete
+    private int endStatement() {
+        Arrays.fill(this.values, 0, this.count, null);
+        this.count = 0;
+        return FlatAst.NONE;
+    }
+
+    private int add(@Nullable Node value, @Nullable Name name, @Nullable Span span) {
+        if (this.count == this.values.length) {
+            int capacity = this.count * 2;
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.spans = Arrays.copyOf(this.spans, capacity);
+        }
+        this.values[this.count] = value;
+        this.names[this.count] = name;
+        this.spans[this.count] = span;
+        return this.count++;
+    }
+
+    private Node value(int handle) {
+        return Objects.requireNonNull(this.values[handle]);
+    }
+
+    private Name name(int handle) {
+        return Objects.requireNonNull(this.names[handle]);
+    }
+
+    // the name tree is only created for error messages
+    private Supplier<NameTree> nameTree(int handle) {
+        Name name = name(handle);
+        Span span = Objects.requireNonNull(this.spans[handle]);
+        return () -> new NameTree(name, span);
+    }
+}
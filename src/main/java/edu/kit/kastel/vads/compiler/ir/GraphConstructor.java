@@ -13,27 +13,53 @@ import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
 import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 import edu.kit.kastel.vads.compiler.ir.node.SubNode;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
+import edu.kit.kastel.vads.compiler.ir.util.DebugContext;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import org.jspecify.annotations.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/// Constructs SSA form while a function is translated, following Braun et al.
+///
+/// Variables are identified by the dense [symbol id][Name#symbol()] of their name, and blocks get dense
+/// indices in the order they are first used. All tables are arrays indexed by these, so reading and writing
+/// variables neither hashes nor allocates.
+///
+/// Trivial phis are removed as soon as their operands are known, and [#finish()] removes the cycles of phis
+/// that only carry a single value, so the result is in minimal SSA form.
+/// Removed phis stay in the graph without inputs or users, the tables may still refer to them and are
+/// resolved through the recorded replacements.
 class GraphConstructor {
+    private static final int INITIAL_CAPACITY = 4;
 
     private final Optimizer optimizer;
     private final IrGraph graph;
-    private final Map<Name, Map<Block, Node>> currentDef = new HashMap<>();
-    private final Map<Block, Map<Name, Phi>> incompletePhis = new HashMap<>();
-    private final Map<Block, Node> currentSideEffect = new HashMap<>();
-    private final Map<Block, Phi> incompleteSideEffectPhis = new HashMap<>();
-    private final Set<Block> sealedBlocks = new HashSet<>();
+    // the index of each block plus one, by node id, 0 for nodes without index
+    private int[] blockIndices = new int[INITIAL_CAPACITY];
+    private int blockCount;
+    // the tables of variables are indexed by block index first, then by variable
+    private @Nullable Node[][] currentDef = new Node[INITIAL_CAPACITY][];
+    private @Nullable Phi[][] incompletePhis = new Phi[INITIAL_CAPACITY][];
+    private @Nullable Node[] currentSideEffect = new Node[INITIAL_CAPACITY];
+    private @Nullable Phi[] incompleteSideEffectPhis = new Phi[INITIAL_CAPACITY];
+    private final BitSet sealedBlocks = new BitSet();
+    // the value each removed phi was replaced with, which may have been replaced itself
+    private final NodeMap<Node> replacements;
     private Block currentBlock;
 
-    public GraphConstructor(Optimizer optimizer, String name) {
+    public GraphConstructor(Optimizer optimizer, String name, DebugContext debugContext) {
         this.optimizer = optimizer;
-        this.graph = new IrGraph(name);
+        this.graph = new IrGraph(name, debugContext);
+        this.replacements = new NodeMap<>(this.graph);
         this.currentBlock = this.graph.startBlock();
         // the start block never gets any more predecessors
         sealBlock(this.currentBlock);
@@ -95,14 +121,17 @@ class GraphConstructor {
         return this.graph;
     }
 
-    void writeVariable(Name variable, Block block, Node value) {
-        this.currentDef.computeIfAbsent(variable, _ -> new HashMap<>()).put(block, value);
+    /// @param variable the symbol id of the variable
+    void writeVariable(int variable, Block block, Node value) {
+        int index = blockIndex(block);
+        this.currentDef[index] = put(this.currentDef[index], variable, value, Node[]::new);
     }
 
-    Node readVariable(Name variable, Block block) {
-        Node node = this.currentDef.getOrDefault(variable, Map.of()).get(block);
+    /// @param variable the symbol id of the variable
+    Node readVariable(int variable, Block block) {
+        Node node = get(this.currentDef[blockIndex(block)], variable);
         if (node != null) {
-            return node;
+            return resolve(node);
         }
         return readVariableRecursive(variable, block);
     }
@@ -129,13 +158,14 @@ class GraphConstructor {
      * @return the Node representing the value of the variable at the start of the
      *         block
      */
-    private Node readVariableRecursive(Name variable, Block block) {
+    private Node readVariableRecursive(int variable, Block block) {
         Node val;
-        if (!this.sealedBlocks.contains(block)) {
+        if (!isSealed(block)) {
             val = new Phi(block);
-            this.incompletePhis.computeIfAbsent(block, _ -> new HashMap<>()).put(variable, (Phi) val);
-        } else if (block.predecessors().size() == 1) {
-            val = readVariable(variable, block.predecessors().getFirst().block());
+            int index = blockIndex(block);
+            this.incompletePhis[index] = put(this.incompletePhis[index], variable, (Phi) val, Phi[]::new);
+        } else if (block.predecessorCount() == 1) {
+            val = readVariable(variable, block.predecessor(0).block());
         } else {
             val = new Phi(block);
             writeVariable(variable, block, val);
@@ -158,31 +188,250 @@ class GraphConstructor {
      * @return the possibly simplified Node (the original Phi or a replacement if
      *         trivial)
      */
-    Node addPhiOperands(Name variable, Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readVariable(variable, pred.block()));
+    Node addPhiOperands(int variable, Phi phi) {
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readVariable(variable, block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
 
+    /// Replaces the phi by its only operand other than itself, if it has one.
+    /// Phis that used the removed one may have become trivial as well and are tried next.
+    ///
+    /// @return the value that replaces the phi, or the phi itself if it is not trivial
     Node tryRemoveTrivialPhi(Phi phi) {
-        // TODO: the paper shows how to remove trivial phis.
-        // as this is not a problem in Lab 1 and it is just
-        // a simplification, we recommend to implement this
-        // part yourself.
-        return phi;
+        if (this.replacements.containsKey(phi)) {
+            return resolve(phi);
+        }
+        if (phi.predecessorCount() < phi.block().predecessorCount()) {
+            // the operands are still being added
+            return phi;
+        }
+        @Nullable Node same = null;
+        for (int i = 0; i < phi.predecessorCount(); i++) {
+            Node operand = phi.predecessor(i);
+            if (operand == same || operand == phi) {
+                continue;
+            }
+            if (same != null) {
+                // the phi merges at least two values
+                return phi;
+            }
+            same = operand;
+        }
+        if (same == null) {
+            // the phi is unreachable or reads an undefined value, there is no undefined node to replace it with
+            return phi;
+        }
+        List<Node> users = new ArrayList<>(this.graph.successors(phi));
+        replace(phi, same);
+        for (Node user : users) {
+            if (user instanceof Phi userPhi && user != phi) {
+                tryRemoveTrivialPhi(userPhi);
+            }
+        }
+        return resolve(same);
+    }
+
+    /// Completes the construction by removing the redundant phis that are left.
+    /// All blocks must be sealed.
+    void finish() {
+        NodeSet phis = new NodeSet(this.graph);
+        for (int id = 0; id < this.graph.nodeCount(); id++) {
+            if (this.graph.node(id) instanceof Phi phi && !this.replacements.containsKey(phi)) {
+                phis.add(phi);
+            }
+        }
+        if (!phis.isEmpty()) {
+            removeRedundantPhis(phis);
+        }
+    }
+
+    /// Removes cycles of phis that only merge a single value from outside the cycle, as described in
+    /// section 3.2 of the paper. Such cycles remain when a variable is not changed in a loop.
+    private void removeRedundantPhis(NodeSet phis) {
+        for (List<Phi> component : stronglyConnectedComponents(phis)) {
+            // earlier replacements may have removed parts of the component already
+            component.removeIf(this.replacements::containsKey);
+            if (component.size() == 1) {
+                tryRemoveTrivialPhi(component.getFirst());
+                continue;
+            }
+            if (component.isEmpty()) {
+                continue;
+            }
+            NodeSet members = new NodeSet(this.graph);
+            members.addAll(component);
+            NodeSet inner = new NodeSet(this.graph);
+            NodeSet outerOperands = new NodeSet(this.graph);
+            for (Phi phi : component) {
+                boolean isInner = true;
+                for (int i = 0; i < phi.predecessorCount(); i++) {
+                    Node operand = phi.predecessor(i);
+                    if (!members.contains(operand)) {
+                        outerOperands.add(operand);
+                        isInner = false;
+                    }
+                }
+                if (isInner) {
+                    inner.add(phi);
+                }
+            }
+            if (outerOperands.size() == 1) {
+                Node value = outerOperands.iterator().next();
+                for (Phi phi : component) {
+                    replace(phi, value);
+                }
+            } else if (outerOperands.size() > 1 && !inner.isEmpty()) {
+                // the inner phis may still form redundant cycles of their own
+                removeRedundantPhis(inner);
+            }
+        }
+    }
+
+    /// {@return the strongly connected components of the phis, with operands as edges}
+    /// Components come after the components of their operands, so each one is processed with its operands
+    /// already simplified. This is Tarjan's algorithm with an explicit stack, as chains of phis can be long.
+    private List<List<Phi>> stronglyConnectedComponents(NodeSet phis) {
+        List<List<Phi>> components = new ArrayList<>();
+        int[] indices = new int[this.graph.nodeCount()];
+        int[] lowLinks = new int[this.graph.nodeCount()];
+        NodeSet onStack = new NodeSet(this.graph);
+        Deque<Phi> stack = new ArrayDeque<>();
+        Deque<int[]> path = new ArrayDeque<>();
+        int index = 0;
+        for (Node root : phis) {
+            if (indices[root.id()] != 0) {
+                continue;
+            }
+            // each frame is the id of a phi and the next operand to visit
+            path.push(new int[] {root.id(), 0});
+            while (!path.isEmpty()) {
+                int[] frame = path.peek();
+                Phi phi = (Phi) this.graph.node(frame[0]);
+                if (frame[1] == 0 && indices[phi.id()] == 0) {
+                    indices[phi.id()] = lowLinks[phi.id()] = ++index;
+                    stack.push(phi);
+                    onStack.add(phi);
+                }
+                if (frame[1] < phi.predecessorCount()) {
+                    Node operand = phi.predecessor(frame[1]++);
+                    if (!phis.contains(operand)) {
+                        continue;
+                    }
+                    if (indices[operand.id()] == 0) {
+                        path.push(new int[] {operand.id(), 0});
+                    } else if (onStack.contains(operand)) {
+                        lowLinks[phi.id()] = Math.min(lowLinks[phi.id()], indices[operand.id()]);
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) {
+                    int parent = path.peek()[0];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[phi.id()]);
+                }
+                if (lowLinks[phi.id()] == indices[phi.id()]) {
+                    List<Phi> component = new ArrayList<>();
+                    Phi member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != phi);
+                    components.add(component);
+                }
+            }
+        }
+        return components;
+    }
+
+    // rewires all users of the phi to the value, the phi is left without inputs
+    private void replace(Phi phi, Node value) {
+        List<Node> users = new ArrayList<>(this.graph.successors(phi));
+        // the optimizer may have looked up the users by their inputs
+        for (Node user : users) {
+            this.optimizer.beforeRewire(user);
+        }
+        this.graph.replace(phi, value);
+        for (Node user : users) {
+            this.optimizer.afterRewire(user);
+        }
+        phi.clearPredecessors();
+        this.replacements.put(phi, value);
+    }
+
+    // the value that currently stands for the node, following the replacements of removed phis
+    private Node resolve(Node node) {
+        Node current = node;
+        Node replacement;
+        while ((replacement = this.replacements.get(current)) != null) {
+            current = replacement;
+        }
+        return current;
     }
 
     void sealBlock(Block block) {
-        for (Map.Entry<Name, Phi> entry : this.incompletePhis.getOrDefault(block, Map.of()).entrySet()) {
-            addPhiOperands(entry.getKey(), entry.getValue());
+        int index = blockIndex(block);
+        @Nullable Phi[] phis = this.incompletePhis[index];
+        if (phis != null) {
+            for (int variable = 0; variable < phis.length; variable++) {
+                Phi phi = phis[variable];
+                if (phi != null) {
+                    addPhiOperands(variable, phi);
+                }
+            }
         }
-        Phi sideEffectPhi = this.incompleteSideEffectPhis.get(block);
+        Phi sideEffectPhi = this.incompleteSideEffectPhis[index];
         if (sideEffectPhi != null) {
             addPhiOperands(sideEffectPhi);
         }
-        // NOTE: shouldnt we also remove Phi node from the incompletePhis map?
-        this.sealedBlocks.add(block);
+        // the phis are complete now, the current definitions refer to them or their replacements
+        this.incompletePhis[index] = null;
+        this.incompleteSideEffectPhis[index] = null;
+        this.sealedBlocks.set(index);
+    }
+
+    private boolean isSealed(Block block) {
+        return this.sealedBlocks.get(blockIndex(block));
+    }
+
+    // the dense index of the block, assigned when the block is first used
+    private int blockIndex(Block block) {
+        int id = block.id();
+        if (id >= this.blockIndices.length) {
+            this.blockIndices = Arrays.copyOf(this.blockIndices, Math.max(id + 1, this.blockIndices.length * 2));
+        }
+        if (this.blockIndices[id] == 0) {
+            if (this.blockCount == this.currentDef.length) {
+                int capacity = this.blockCount * 2;
+                this.currentDef = Arrays.copyOf(this.currentDef, capacity);
+                this.incompletePhis = Arrays.copyOf(this.incompletePhis, capacity);
+                this.currentSideEffect = Arrays.copyOf(this.currentSideEffect, capacity);
+                this.incompleteSideEffectPhis = Arrays.copyOf(this.incompleteSideEffectPhis, capacity);
+            }
+            this.blockIndices[id] = ++this.blockCount;
+        }
+        return this.blockIndices[id] - 1;
+    }
+
+    private static <T extends Node> @Nullable T get(@Nullable T @Nullable [] row, int variable) {
+        return row != null && variable < row.length ? row[variable] : null;
+    }
+
+    // stores the value in the row, which grows to fit the variable
+    private static <T extends Node> @Nullable T[] put(@Nullable T @Nullable [] row, int variable, T value,
+            IntFunction<@Nullable T[]> newRow) {
+        assert variable >= 0 : "not a variable: " + variable;
+        @Nullable T[] result = row;
+        if (result == null) {
+            result = newRow.apply(Math.max(variable + 1, INITIAL_CAPACITY));
+        } else if (variable >= result.length) {
+            result = Arrays.copyOf(result, Math.max(variable + 1, result.length * 2));
+        }
+        result[variable] = value;
+        return result;
     }
 
     public void writeCurrentSideEffect(Node node) {
@@ -190,7 +439,7 @@ class GraphConstructor {
     }
 
     private void writeSideEffect(Block block, Node node) {
-        this.currentSideEffect.put(block, node);
+        this.currentSideEffect[blockIndex(block)] = node;
     }
 
     public Node readCurrentSideEffect() {
@@ -198,21 +447,22 @@ class GraphConstructor {
     }
 
     private Node readSideEffect(Block block) {
-        Node node = this.currentSideEffect.get(block);
+        Node node = this.currentSideEffect[blockIndex(block)];
         if (node != null) {
-            return node;
+            return resolve(node);
         }
         return readSideEffectRecursive(block);
     }
 
     private Node readSideEffectRecursive(Block block) {
         Node val;
-        if (!this.sealedBlocks.contains(block)) {
+        if (!isSealed(block)) {
             val = new Phi(block);
-            Phi old = this.incompleteSideEffectPhis.put(block, (Phi) val);
-            assert old == null : "double readSideEffectRecursive for " + block;
-        } else if (block.predecessors().size() == 1) {
-            val = readSideEffect(block.predecessors().getFirst().block());
+            int index = blockIndex(block);
+            assert this.incompleteSideEffectPhis[index] == null : "double readSideEffectRecursive for " + block;
+            this.incompleteSideEffectPhis[index] = (Phi) val;
+        } else if (block.predecessorCount() == 1) {
+            val = readSideEffect(block.predecessor(0).block());
         } else {
             val = new Phi(block);
             writeSideEffect(block, val);
@@ -223,8 +473,9 @@ class GraphConstructor {
     }
 
     Node addPhiOperands(Phi phi) {
-        for (Node pred : phi.block().predecessors()) {
-            phi.appendOperand(readSideEffect(pred.block()));
+        Block block = phi.block();
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            phi.appendOperand(readSideEffect(block.predecessor(i).block()));
         }
         return tryRemoveTrivialPhi(phi);
     }
@@ -2,43 +2,90 @@ package edu.kit.kastel.vads.compiler.ir;
 
 import edu.kit.kastel.vads.compiler.ir.node.Block;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.NodeStore;
+import edu.kit.kastel.vads.compiler.ir.util.DebugContext;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
 
-import java.util.HashSet;
-import java.util.IdentityHashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.SequencedSet;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class IrGraph {
-    private final Map<Node, SequencedSet<Node>> successors = new IdentityHashMap<>();
+    private final NodeStore nodeStore = new NodeStore();
     private final Block startBlock;
     private final Block endBlock;
     private final String name;
+    private final DebugContext debugContext;
 
+    /// Creates a graph whose nodes do not carry debug info.
     public IrGraph(String name) {
+        this(name, new DebugContext(false));
+    }
+
+    public IrGraph(String name, DebugContext debugContext) {
         this.name = name;
+        this.debugContext = debugContext;
         this.startBlock = new Block(this);
         this.endBlock = new Block(this);
     }
 
-    public void registerSuccessor(Node node, Node successor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).add(successor);
+    /// {@return the arrays that hold the data of the nodes of this graph}
+    /// Ids are counted per graph, so graphs can be built concurrently and their nodes are numbered
+    /// independently of other graphs.
+    public NodeStore nodeStore() {
+        return this.nodeStore;
     }
 
-    public void removeSuccessor(Node node, Node oldSuccessor) {
-        this.successors.computeIfAbsent(node, _ -> new LinkedHashSet<>()).remove(oldSuccessor);
+    /// {@return the node with the given id}
+    public Node node(int id) {
+        return this.nodeStore.node(id);
+    }
+
+    /// {@return the number of nodes created in this graph, all ids are smaller than it}
+    /// Side tables like [NodeMap] and [NodeSet] are indexed by id.
+    public int nodeCount() {
+        return this.nodeStore.size();
+    }
+
+    /// {@return the context that provides the debug info of new nodes}
+    public DebugContext debugContext() {
+        return this.debugContext;
     }
 
     /// {@return the set of nodes that have the given node as one of their inputs}
+    /// The set is a copy, [#forEachSuccessor(Node, Consumer)] visits the successors without allocating.
     public Set<Node> successors(Node node) {
-        SequencedSet<Node> successors = this.successors.get(node);
-        if (successors == null) {
-            return Set.of();
+        Set<Node> successors = new LinkedHashSet<>();
+        forEachSuccessor(node, successors::add);
+        return successors;
+    }
+
+    /// {@return the number of inputs that use the given node}
+    public int successorCount(Node node) {
+        return this.nodeStore.useCount(node.id());
+    }
+
+    /// Calls the action for each node that has the given node as an input, once per such input.
+    /// The action must not change the inputs of the given node's successors.
+    public void forEachSuccessor(Node node, Consumer<? super Node> action) {
+        this.nodeStore.forEachUse(node.id(), action);
+    }
+
+    /// Makes all successors of the node use the replacement instead of it.
+    /// The node keeps its own inputs, see [Node#clearPredecessors()].
+    public void replace(Node node, Node replacement) {
+        for (Node successor : successors(node)) {
+            for (int i = 0; i < successor.predecessorCount(); i++) {
+                if (successor.predecessor(i) == node) {
+                    successor.setPredecessor(i, replacement);
+                }
+            }
         }
-        return Set.copyOf(successors);
     }
 
     public Block startBlock() {
@@ -56,30 +103,47 @@ public class IrGraph {
 
     public List<Node> nodesInReversePostOrder() {
         List<Node> result = new ArrayList<>();
-        Set<Node> visited = new HashSet<>();
+        NodeSet visited = new NodeSet(this);
         visited.add(endBlock);
         IrGraph.scan(endBlock, visited, result);
         return result;
     }
 
-    private static void scan(Node node, Set<Node> visited, List<Node> result) {
-        for (Node predecessor : node.predecessors()) {
-            if (!visited.contains(predecessor)) {
-                visited.add(predecessor);
-                scan(predecessor, visited, result);
+    /// Adds all nodes reachable from the given one to the result, predecessors before their successors.
+    /// The depth-first search keeps its path on an explicit stack, so long chains of nodes cannot overflow the
+    /// call stack.
+    private static void scan(Node node, NodeSet visited, List<Node> result) {
+        Deque<ScanFrame> path = new ArrayDeque<>();
+        path.push(new ScanFrame(node));
+        while (!path.isEmpty()) {
+            ScanFrame frame = path.peek();
+            if (frame.next < frame.node.predecessorCount()) {
+                Node predecessor = frame.node.predecessor(frame.next++);
+                if (visited.add(predecessor)) {
+                    path.push(new ScanFrame(predecessor));
+                }
+            } else {
+                path.pop();
+                result.add(frame.node);
             }
         }
-        result.add(node);
     }
 
-    public Set<Node> nodes() {
-        Set<Node> nodes = new LinkedHashSet<>();
-        for (Node node : this.successors.keySet()) {
-            nodes.add(node);
-            nodes.addAll(this.successors.get(node));
+    private static final class ScanFrame {
+        private final Node node;
+        private int next;
+
+        ScanFrame(Node node) {
+            this.node = node;
+        }
+    }
+
+    /// {@return all nodes created in this graph, in the order of their ids}
+    public List<Node> nodes() {
+        List<Node> nodes = new ArrayList<>(nodeCount());
+        for (int id = 0; id < nodeCount(); id++) {
+            nodes.add(node(id));
         }
-        nodes.add(startBlock);
-        nodes.add(endBlock);
         return nodes;
     }
 }
@@ -5,29 +5,16 @@ import edu.kit.kastel.vads.compiler.ir.node.DivNode;
 import edu.kit.kastel.vads.compiler.ir.node.ModNode;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.optimize.Optimizer;
+import edu.kit.kastel.vads.compiler.ir.util.DebugContext;
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
-import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
-import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
-import edu.kit.kastel.vads.compiler.parser.ast.Tree;
-import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 import edu.kit.kastel.vads.compiler.parser.symbol.Name;
-import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.Optional;
 import java.util.function.BinaryOperator;
 
 /// SSA translation as described in
@@ -38,194 +25,226 @@ import java.util.function.BinaryOperator;
 ///
 /// We recommend to read the paper to better understand the mechanics implemented here.
 public class SsaTranslation {
-    private final FunctionTree function;
+    private final @Nullable FlatAst ast;
+    private final int functionNode;
     private final GraphConstructor constructor;
 
-    public SsaTranslation(FunctionTree function, Optimizer optimizer) {
-        this.function = function;
-        this.constructor = new GraphConstructor(optimizer, function.name().name().asString());
+    /// Creates a translation of the [FlatAst#FUNCTION] node `function` of the given tree.
+    public SsaTranslation(FlatAst ast, int function, Optimizer optimizer) {
+        this(ast, function, optimizer, true);
+    }
+
+    /// Creates a translation of the [FlatAst#FUNCTION] node `function` of the given tree.
+    /// @param debugInfo whether the nodes get the spans they were translated from as debug info
+    public SsaTranslation(FlatAst ast, int function, Optimizer optimizer, boolean debugInfo) {
+        this.ast = ast;
+        this.functionNode = function;
+        this.constructor = new GraphConstructor(
+            optimizer, ast.name(ast.child(function, 1)).asString(), new DebugContext(debugInfo)
+        );
+    }
+
+    /// Creates a translation of a function that is passed to it construct by construct,
+    /// see [DirectSsaTranslation].
+    SsaTranslation(String name, Optimizer optimizer, boolean debugInfo) {
+        this.ast = null;
+        this.functionNode = FlatAst.NONE;
+        this.constructor = new GraphConstructor(optimizer, name, new DebugContext(debugInfo));
     }
 
     public IrGraph translate() {
-        var visitor = new SsaTranslationVisitor();
-        this.function.accept(visitor, this);
+        if (this.ast == null) {
+            throw new IllegalStateException("functions passed construct by construct are completed by finish()");
+        }
+        new FlatTranslation(this.ast).function(this.functionNode);
+        return finish();
+    }
+
+    /// Completes the graph once the whole function was translated.
+    IrGraph finish() {
+        this.constructor.finish();
+        this.constructor.graph().nodeStore().trimToSize();
         return this.constructor.graph();
     }
 
-    private void writeVariable(Name variable, Block block, Node value) {
+    IrGraph graph() {
+        return this.constructor.graph();
+    }
+
+    DebugContext debugContext() {
+        return this.constructor.graph().debugContext();
+    }
+
+    /// @param variable the symbol id of the variable, see [Name#symbol()]
+    void writeVariable(int variable, Block block, Node value) {
         this.constructor.writeVariable(variable, block, value);
     }
 
-    private Node readVariable(Name variable, Block block) {
+    /// @param variable the symbol id of the variable, see [Name#symbol()]
+    Node readVariable(int variable, Block block) {
         return this.constructor.readVariable(variable, block);
     }
 
-    private Block currentBlock() {
+    Block currentBlock() {
         return this.constructor.currentBlock();
     }
 
-    private static class SsaTranslationVisitor implements Visitor<SsaTranslation, Optional<Node>> {
-
-        @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
-        private static final Optional<Node> NOT_AN_EXPRESSION = Optional.empty();
-
-        private final Deque<DebugInfo> debugStack = new ArrayDeque<>();
+    /// {@return the operation a compound assignment is desugared to, `null` for a plain assignment}
+    private @Nullable BinaryOperator<Node> desugar(OperatorType type) {
+        return switch (type) {
+            case ASSIGN_MINUS -> this.constructor::newSub;
+            case ASSIGN_PLUS -> this.constructor::newAdd;
+            case ASSIGN_MUL -> this.constructor::newMul;
+            case ASSIGN_DIV -> (lhs, rhs) -> projResultDivMod(this.constructor.newDiv(lhs, rhs));
+            case ASSIGN_MOD -> (lhs, rhs) -> projResultDivMod(this.constructor.newMod(lhs, rhs));
+            case ASSIGN -> null;
+            default -> throw new IllegalArgumentException("not an assignment operator " + type);
+        };
+    }
 
-        private void pushSpan(Tree tree) {
-            this.debugStack.push(DebugInfoHelper.getDebugInfo());
-            DebugInfoHelper.setDebugInfo(new DebugInfo.SourceInfo(tree.span()));
+    void assign(int variable, OperatorType type, Node value) {
+        BinaryOperator<Node> desugar = desugar(type);
+        Node rhs = value;
+        if (desugar != null) {
+            rhs = desugar.apply(readVariable(variable, currentBlock()), rhs);
         }
+        writeVariable(variable, currentBlock(), rhs);
+    }
 
-        private void popSpan() {
-            DebugInfoHelper.setDebugInfo(this.debugStack.pop());
-        }
+    Node binaryOperation(OperatorType type, Node lhs, Node rhs) {
+        return switch (type) {
+            case MINUS -> this.constructor.newSub(lhs, rhs);
+            case PLUS -> this.constructor.newAdd(lhs, rhs);
+            case MUL -> this.constructor.newMul(lhs, rhs);
+            case DIV -> projResultDivMod(this.constructor.newDiv(lhs, rhs));
+            case MOD -> projResultDivMod(this.constructor.newMod(lhs, rhs));
+            default -> throw new IllegalArgumentException("not a binary expression operator " + type);
+        };
+    }
 
-        @Override
-        public Optional<Node> visit(AssignmentTree assignmentTree, SsaTranslation data) {
-            pushSpan(assignmentTree);
-            BinaryOperator<Node> desugar = switch (assignmentTree.operator().type()) {
-                case ASSIGN_MINUS -> data.constructor::newSub;
-                case ASSIGN_PLUS -> data.constructor::newAdd;
-                case ASSIGN_MUL -> data.constructor::newMul;
-                case ASSIGN_DIV -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
-                case ASSIGN_MOD -> (lhs, rhs) -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
-                case ASSIGN -> null;
-                default ->
-                    throw new IllegalArgumentException("not an assignment operator " + assignmentTree.operator());
-            };
-
-            switch (assignmentTree.lValue()) {
-                case LValueIdentTree(var name) -> {
-                    Node rhs = assignmentTree.expression().accept(this, data).orElseThrow();
-                    if (desugar != null) {
-                        rhs = desugar.apply(data.readVariable(name.name(), data.currentBlock()), rhs);
-                    }
-                    data.writeVariable(name.name(), data.currentBlock(), rhs);
-                }
-            }
-            popSpan();
-            return NOT_AN_EXPRESSION;
-        }
+    Node negate(Node value) {
+        return this.constructor.newSub(this.constructor.newConstInt(0), value);
+    }
 
-        @Override
-        public Optional<Node> visit(BinaryOperationTree binaryOperationTree, SsaTranslation data) {
-            pushSpan(binaryOperationTree);
-            Node lhs = binaryOperationTree.lhs().accept(this, data).orElseThrow();
-            Node rhs = binaryOperationTree.rhs().accept(this, data).orElseThrow();
-            Node res = switch (binaryOperationTree.operatorType()) {
-                case MINUS -> data.constructor.newSub(lhs, rhs);
-                case PLUS -> data.constructor.newAdd(lhs, rhs);
-                case MUL -> data.constructor.newMul(lhs, rhs);
-                case DIV -> projResultDivMod(data, data.constructor.newDiv(lhs, rhs));
-                case MOD -> projResultDivMod(data, data.constructor.newMod(lhs, rhs));
-                default ->
-                    throw new IllegalArgumentException(
-                            "not a binary expression operator " + binaryOperationTree.operatorType());
-            };
-            popSpan();
-            return Optional.of(res);
-        }
-
-        @Override
-        public Optional<Node> visit(BlockTree blockTree, SsaTranslation data) {
-            pushSpan(blockTree);
-            for (StatementTree statement : blockTree.statements()) {
-                statement.accept(this, data);
-                // skip everything after a return in a block
-                if (statement instanceof ReturnTree) {
-                    break;
-                }
-            }
-            popSpan();
-            return NOT_AN_EXPRESSION;
+    // literals were checked by the semantic analysis, values above Integer.MAX_VALUE wrap around
+    Node constant(long literalValue) {
+        if (literalValue == LiteralTree.INVALID) {
+            throw new IllegalArgumentException("invalid integer literal");
         }
+        return this.constructor.newConstInt((int) literalValue);
+    }
 
-        @Override
-        public Optional<Node> visit(DeclarationTree declarationTree, SsaTranslation data) {
-            pushSpan(declarationTree);
-            if (declarationTree.initializer() != null) {
-                Node rhs = declarationTree.initializer().accept(this, data).orElseThrow();
-                data.writeVariable(declarationTree.name().name(), data.currentBlock(), rhs);
-            }
-            popSpan();
-            return NOT_AN_EXPRESSION;
-        }
+    void startFunction() {
+        Node start = this.constructor.newStart();
+        this.constructor.writeCurrentSideEffect(this.constructor.newSideEffectProj(start));
+    }
 
-        @Override
-        public Optional<Node> visit(FunctionTree functionTree, SsaTranslation data) {
-            pushSpan(functionTree);
-            Node start = data.constructor.newStart();
-            data.constructor.writeCurrentSideEffect(data.constructor.newSideEffectProj(start));
-            functionTree.body().accept(this, data);
-            popSpan();
-            return NOT_AN_EXPRESSION;
-        }
+    void returnValue(Node value) {
+        Node ret = this.constructor.newReturn(value);
+        this.constructor.graph().endBlock().addPredecessor(ret);
+    }
 
-        @Override
-        public Optional<Node> visit(IdentExpressionTree identExpressionTree, SsaTranslation data) {
-            pushSpan(identExpressionTree);
-            Node value = data.readVariable(identExpressionTree.name().name(), data.currentBlock());
-            popSpan();
-            return Optional.of(value);
+    private Node projResultDivMod(Node divMod) {
+        // make sure we actually have a div or a mod, as optimizations could
+        // have changed it to something else already
+        if (!(divMod instanceof DivNode || divMod instanceof ModNode)) {
+            return divMod;
         }
+        Node projSideEffect = this.constructor.newSideEffectProj(divMod);
+        this.constructor.writeCurrentSideEffect(projSideEffect);
+        return this.constructor.newResultProj(divMod);
+    }
 
-        @Override
-        public Optional<Node> visit(LiteralTree literalTree, SsaTranslation data) {
-            pushSpan(literalTree);
-            Node node = data.constructor.newConstInt((int) literalTree.parseValue().orElseThrow());
-            popSpan();
-            return Optional.of(node);
-        }
+    /// Translates a [FlatAst]. Statements are translated one by one, so statements after a return can be skipped,
+    /// while expressions are traversed in postorder and keep their values on a stack.
+    private class FlatTranslation {
+        private final FlatAst ast;
+        private final Deque<Node> values = new ArrayDeque<>();
 
-        @Override
-        public Optional<Node> visit(LValueIdentTree lValueIdentTree, SsaTranslation data) {
-            return NOT_AN_EXPRESSION;
+        FlatTranslation(FlatAst ast) {
+            this.ast = ast;
         }
 
-        @Override
-        public Optional<Node> visit(NameTree nameTree, SsaTranslation data) {
-            return NOT_AN_EXPRESSION;
+        // the span is only created if it is attached to nodes
+        private DebugInfo enter(int node) {
+            DebugContext debugContext = debugContext();
+            return debugContext.enabled() ? debugContext.enter(this.ast.span(node)) : debugContext.current();
         }
 
-        @Override
-        public Optional<Node> visit(NegateTree negateTree, SsaTranslation data) {
-            pushSpan(negateTree);
-            Node node = negateTree.expression().accept(this, data).orElseThrow();
-            Node res = data.constructor.newSub(data.constructor.newConstInt(0), node);
-            popSpan();
-            return Optional.of(res);
+        private void restore(DebugInfo previous) {
+            debugContext().restore(previous);
         }
 
-        @Override
-        public Optional<Node> visit(ProgramTree programTree, SsaTranslation data) {
-            throw new UnsupportedOperationException();
+        void function(int node) {
+            DebugInfo previous = enter(node);
+            startFunction();
+            block(this.ast.child(node, 2));
+            restore(previous);
         }
 
-        @Override
-        public Optional<Node> visit(ReturnTree returnTree, SsaTranslation data) {
-            pushSpan(returnTree);
-            Node node = returnTree.expression().accept(this, data).orElseThrow();
-            Node ret = data.constructor.newReturn(node);
-            data.constructor.graph().endBlock().addPredecessor(ret);
-            popSpan();
-            return NOT_AN_EXPRESSION;
+        private void block(int node) {
+            DebugInfo previous = enter(node);
+            int statement = this.ast.firstChild(node);
+            for (; statement != FlatAst.NONE; statement = this.ast.nextSibling(statement)) {
+                statement(statement);
+                // skip everything after a return in a block
+                if (this.ast.kind(statement) == FlatAst.RETURN) {
+                    break;
+                }
+            }
+            restore(previous);
         }
 
-        @Override
-        public Optional<Node> visit(TypeTree typeTree, SsaTranslation data) {
-            throw new UnsupportedOperationException();
+        private void statement(int node) {
+            if (this.ast.kind(node) == FlatAst.BLOCK) {
+                block(node);
+                return;
+            }
+            DebugInfo previous = enter(node);
+            switch (this.ast.kind(node)) {
+                case FlatAst.ASSIGNMENT -> {
+                    int lValue = this.ast.firstChild(node);
+                    Node rhs = expression(this.ast.nextSibling(lValue));
+                    assign(this.ast.symbol(this.ast.firstChild(lValue)), this.ast.operator(node), rhs);
+                }
+                case FlatAst.DECLARATION -> {
+                    int name = this.ast.child(node, 1);
+                    int initializer = this.ast.nextSibling(name);
+                    if (initializer != FlatAst.NONE) {
+                        writeVariable(this.ast.symbol(name), currentBlock(), expression(initializer));
+                    }
+                }
+                case FlatAst.RETURN -> returnValue(expression(this.ast.firstChild(node)));
+                default -> throw new IllegalArgumentException("not a statement: " + this.ast.tree(node));
+            }
+            restore(previous);
         }
 
-        private Node projResultDivMod(SsaTranslation data, Node divMod) {
-            // make sure we actually have a div or a mod, as optimizations could
-            // have changed it to something else already
-            if (!(divMod instanceof DivNode || divMod instanceof ModNode)) {
-                return divMod;
+        /// Translates an expression in postorder, the values of the operands are kept on a stack.
+        private Node expression(int node) {
+            FlatAst.Cursor cursor = this.ast.postorder(node);
+            while (cursor.next()) {
+                int current = cursor.node();
+                if (this.ast.kind(current) == FlatAst.NAME) {
+                    continue;
+                }
+                DebugInfo previous = enter(current);
+                Node result = switch (this.ast.kind(current)) {
+                    case FlatAst.BINARY_OPERATION -> {
+                        Node rhs = this.values.pop();
+                        Node lhs = this.values.pop();
+                        yield binaryOperation(this.ast.operator(current), lhs, rhs);
+                    }
+                    case FlatAst.NEGATE -> negate(this.values.pop());
+                    case FlatAst.LITERAL -> constant(this.ast.literalValue(current));
+                    case FlatAst.IDENT_EXPRESSION ->
+                        readVariable(this.ast.symbol(this.ast.firstChild(current)), currentBlock());
+                    default -> throw new IllegalArgumentException("not an expression: " + this.ast.tree(current));
+                };
+                restore(previous);
+                this.values.push(result);
             }
-            Node projSideEffect = data.constructor.newSideEffectProj(divMod);
-            data.constructor.writeCurrentSideEffect(projSideEffect);
-            return data.constructor.newResultProj(divMod);
+            return this.values.pop();
         }
     }
-
 }
@@ -16,4 +16,14 @@ public final class AddNode extends BinaryOperationNode {
     public int hashCode() {
         return commutativeHashCode(this);
     }
+
+    @Override
+    public boolean congruent(Node other) {
+        return commutativeCongruent(this, other);
+    }
+
+    @Override
+    public int congruenceHashCode() {
+        return commutativeCongruenceHashCode(this);
+    }
 }
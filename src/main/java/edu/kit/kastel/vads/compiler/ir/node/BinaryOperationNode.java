@@ -14,20 +14,27 @@ public sealed abstract class BinaryOperationNode extends Node permits AddNode, D
     }
 
     protected static int commutativeHashCode(BinaryOperationNode node) {
-        int h = node.block().hashCode() * 31 + node.getClass().hashCode();
+        return node.block().hashCode() * 31 + commutativeCongruenceHashCode(node);
+    }
+
+    protected static int commutativeCongruenceHashCode(BinaryOperationNode node) {
         // commutative operation: we want h(op(x, y)) == h(op(y, x))
-        h += 31 * (predecessorHash(node, LEFT) ^ predecessorHash(node, RIGHT));
-        return h;
+        return node.getClass().hashCode() + 31 * (predecessorHash(node, LEFT) ^ predecessorHash(node, RIGHT));
     }
 
     protected static boolean commutativeEquals(BinaryOperationNode a, Object bObj) {
         if (!(bObj instanceof BinaryOperationNode b)) {
             return false;
         }
-        if (a.getClass() != b.getClass()) {
+        if (a.block() != b.block()) {
             return false;
         }
-        if (a.block() != b.block()) {
+        return commutativeCongruent(a, b);
+    }
+
+    // the part of commutativeEquals that does not depend on the blocks
+    protected static boolean commutativeCongruent(BinaryOperationNode a, Node b) {
+        if (a.getClass() != b.getClass()) {
             return false;
         }
         if (a.predecessor(LEFT) == b.predecessor(LEFT) && a.predecessor(RIGHT) == b.predecessor(RIGHT)) {
@@ -50,8 +57,18 @@ public sealed abstract class BinaryOperationNode extends Node permits AddNode, D
 
     @Override
     public int hashCode() {
-        int h = block().hashCode() * 31;
-        h += (predecessorHash(this, LEFT) * 31 + predecessorHash(this, RIGHT)) ^ this.getClass().hashCode();
-        return h;
+        return block().hashCode() * 31 + congruenceHashCode();
+    }
+
+    @Override
+    public boolean congruent(Node other) {
+        return other.getClass() == this.getClass()
+            && this.predecessor(LEFT) == other.predecessor(LEFT)
+            && this.predecessor(RIGHT) == other.predecessor(RIGHT);
+    }
+
+    @Override
+    public int congruenceHashCode() {
+        return (predecessorHash(this, LEFT) * 31 + predecessorHash(this, RIGHT)) ^ this.getClass().hashCode();
     }
 }
@@ -1,32 +1,39 @@
 package edu.kit.kastel.vads.compiler.ir.node;
 
 public final class ConstIntNode extends Node {
-    private final int value;
-
     public ConstIntNode(Block block, int value) {
-        super(block);
-        this.value = value;
+        super(block, value);
     }
 
     public int value() {
-        return this.value;
+        return payload();
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof ConstIntNode c) {
-            return this.block() == c.block() && c.value == this.value;
+            return this.block() == c.block() && c.value() == value();
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        return this.value;
+        return value();
+    }
+
+    @Override
+    public boolean congruent(Node other) {
+        return other instanceof ConstIntNode c && c.value() == value();
+    }
+
+    @Override
+    public int congruenceHashCode() {
+        return value();
     }
 
     @Override
     protected String info() {
-        return "[" + this.value + "]";
+        return "[" + value() + "]";
     }
 }
@@ -12,4 +12,11 @@ public final class ModNode extends BinaryOperationNode {
         // this is the most conservative approach
         return obj == this;
     }
+
+    @Override
+    public boolean congruent(Node other) {
+        // only the same operation on the same state of the side-effect chain,
+        // so it is never merged with one that comes after other side effects
+        return super.congruent(other) && predecessor(SIDE_EFFECT) == other.predecessor(SIDE_EFFECT);
+    }
 }
@@ -2,39 +2,37 @@ package edu.kit.kastel.vads.compiler.ir.node;
 
 import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
-import edu.kit.kastel.vads.compiler.ir.util.DebugInfoHelper;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 /// The base class for all nodes.
+/// A node is a lightweight view of its data in the [NodeStore] of its graph, it only holds the graph and its id.
 public sealed abstract class Node
         permits BinaryOperationNode, Block, ConstIntNode, Phi, ProjNode, ReturnNode, StartNode {
-    private static int nextId = 0;
-
     private final int id;
     private final IrGraph graph;
-    private final Block block;
-    private final List<Node> predecessors = new ArrayList<>();
-    private final DebugInfo debugInfo;
 
     protected Node(Block block, Node... predecessors) {
-        this.id = nextId++;
+        this(block, 0, predecessors);
+    }
+
+    /// @param payload the value a subclass stores in the node, see [#payload()]
+    protected Node(Block block, int payload, Node... predecessors) {
         this.graph = block.graph();
-        this.block = block;
-        this.predecessors.addAll(List.of(predecessors));
-        for (Node predecessor : predecessors) {
-            graph.registerSuccessor(predecessor, this);
-        }
-        this.debugInfo = DebugInfoHelper.getDebugInfo();
+        this.id = store().add(this, block.id(), payload, predecessors, this.graph.debugContext().current());
     }
 
     protected Node(IrGraph graph) {
         assert this.getClass() == Block.class : "must be used by Block only";
-        this.id = nextId++;
         this.graph = graph;
-        this.block = (Block) this;
-        this.debugInfo = DebugInfo.NoInfo.INSTANCE;
+        this.id = store().addBlock((Block) this);
+    }
+
+    /// {@return the id of this node, unique within its graph}
+    /// Ids are dense, so they can index arrays of per-node data, see [IrGraph#nodeCount()].
+    public final int id() {
+        return this.id;
     }
 
     public final IrGraph graph() {
@@ -42,26 +40,58 @@ public sealed abstract class Node
     }
 
     public final Block block() {
-        return this.block;
+        return store().block(this.id);
     }
 
+    /// {@return a read-only view of the inputs of this node}
+    /// The view reflects later changes to the inputs. Hot paths should prefer [#predecessorCount()] and
+    /// [#predecessor(int)], which do not allocate.
     public final List<? extends Node> predecessors() {
-        return List.copyOf(this.predecessors);
+        return new AbstractList<>() {
+            @Override
+            public Node get(int index) {
+                return predecessor(index);
+            }
+
+            @Override
+            public int size() {
+                return predecessorCount();
+            }
+        };
+    }
+
+    public final int predecessorCount() {
+        return store().inputCount(this.id);
     }
 
     public final void setPredecessor(int idx, Node node) {
-        this.graph.removeSuccessor(this.predecessors.get(idx), this);
-        this.predecessors.set(idx, node);
-        this.graph.registerSuccessor(node, this);
+        store().setInput(this.id, idx, node);
     }
 
     public final void addPredecessor(Node node) {
-        this.predecessors.add(node);
-        this.graph.registerSuccessor(node, this);
+        store().appendInput(this.id, node);
+    }
+
+    /// Removes all inputs, so this node is not a successor of them anymore.
+    /// Used for nodes that were replaced, the node itself stays in the graph.
+    public final void clearPredecessors() {
+        store().clearInputs(this.id);
     }
 
     public final Node predecessor(int idx) {
-        return this.predecessors.get(idx);
+        return store().input(this.id, idx);
+    }
+
+    /// {@return whether this node computes the same value as the other one, regardless of their blocks}
+    /// Global value numbering merges congruent nodes, while [#equals(Object)] also requires the same block.
+    /// Nodes are only congruent to themselves unless their class knows better.
+    public boolean congruent(Node other) {
+        return other == this;
+    }
+
+    /// {@return a hash code that is the same for congruent nodes, see [#congruent(Node)]}
+    public int congruenceHashCode() {
+        return System.identityHashCode(this);
     }
 
     @Override
@@ -79,7 +109,16 @@ public sealed abstract class Node
     }
 
     public DebugInfo debugInfo() {
-        return debugInfo;
+        return store().debugInfo(this.id);
+    }
+
+    /// {@return the value passed to the constructor, like the value of a constant}
+    protected final int payload() {
+        return store().payload(this.id);
+    }
+
+    private NodeStore store() {
+        return this.graph.nodeStore();
     }
 
     protected static int predecessorHash(Node node, int predecessor) {
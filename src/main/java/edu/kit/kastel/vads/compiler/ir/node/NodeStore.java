@@ -0,0 +1,206 @@
+package edu.kit.kastel.vads.compiler.ir.node;
+
+import edu.kit.kastel.vads.compiler.ir.util.DebugInfo;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/// The data of all nodes of one graph, kept in primitive arrays indexed by node id.
+///
+/// [Node] objects are lightweight views that only know their graph and id, everything else is read from here.
+/// There is exactly one view per id, so nodes can still be compared by identity.
+/// Inputs of all nodes share one array, and def-use edges are linked lists in another pair of arrays,
+/// so a node does not need any collection of its own.
+public final class NodeStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    // the class of a view doubles as the opcode of its node, so there is no separate opcode array
+    // views are created with their node rather than on demand, as passes and backends compare nodes with ==,
+    // hash them by identity and use them as keys, which needs a single view per id
+    private Node[] nodes = new Node[INITIAL_CAPACITY];
+    private int[] blocks = new int[INITIAL_CAPACITY];
+    // the constant value or projection of a node, 0 for other nodes
+    private int[] payloads = new int[INITIAL_CAPACITY];
+    private DebugInfo[] debugInfos = new DebugInfo[INITIAL_CAPACITY];
+    private int count;
+
+    // the inputs of a node are inputs[inputStarts[id]..inputStarts[id] + inputCounts[id]]
+    // a node whose inputs outgrow their capacity moves them to the end, the old slots are not reused
+    private int[] inputStarts = new int[INITIAL_CAPACITY];
+    private int[] inputCounts = new int[INITIAL_CAPACITY];
+    private int[] inputCapacities = new int[INITIAL_CAPACITY];
+    private int[] inputs = new int[INITIAL_CAPACITY * 2];
+    private int inputsSize;
+
+    // the uses of a node are linked from firstUses[id] via nextUses, the most recent use first
+    // one use per input, removed uses are unlinked and their slots are not reused
+    private int[] firstUses = new int[INITIAL_CAPACITY];
+    private int[] users = new int[INITIAL_CAPACITY * 2];
+    private int[] nextUses = new int[INITIAL_CAPACITY * 2];
+    private int usesSize;
+
+    /// {@return the number of nodes, all ids are smaller than it}
+    public int size() {
+        return this.count;
+    }
+
+    /// {@return the node with the given id}
+    public Node node(int id) {
+        Objects.checkIndex(id, this.count);
+        return this.nodes[id];
+    }
+
+    /// {@return the number of inputs that use the node with the given id}
+    public int useCount(int id) {
+        int count = 0;
+        for (int use = this.firstUses[id]; use != NONE; use = this.nextUses[use]) {
+            count++;
+        }
+        return count;
+    }
+
+    /// Calls the action for each node that uses the node with the given id, once per input.
+    /// The most recently added use is visited first.
+    public void forEachUse(int id, Consumer<? super Node> action) {
+        for (int use = this.firstUses[id]; use != NONE; use = this.nextUses[use]) {
+            action.accept(this.nodes[this.users[use]]);
+        }
+    }
+
+    /// Adds a node, the inputs are registered as used by it.
+    /// @param block the id of the block of the node, blocks belong to themselves, see [#addBlock(Block)]
+    /// @return the id of the node
+    int add(Node node, int block, int payload, Node[] inputs, DebugInfo debugInfo) {
+        if (this.count == this.nodes.length) {
+            grow(Math.max(INITIAL_CAPACITY, this.count * 2));
+        }
+        int id = this.count++;
+        this.nodes[id] = node;
+        this.blocks[id] = block == NONE ? id : block;
+        this.payloads[id] = payload;
+        this.debugInfos[id] = debugInfo;
+        this.firstUses[id] = NONE;
+        this.inputStarts[id] = allocateInputs(inputs.length);
+        this.inputCapacities[id] = inputs.length;
+        for (Node input : inputs) {
+            this.inputs[this.inputStarts[id] + this.inputCounts[id]++] = input.id();
+            addUse(input.id(), id);
+        }
+        return id;
+    }
+
+    int addBlock(Block block) {
+        return add(block, NONE, 0, new Node[0], DebugInfo.NoInfo.INSTANCE);
+    }
+
+    Block block(int id) {
+        return (Block) this.nodes[this.blocks[id]];
+    }
+
+    int payload(int id) {
+        return this.payloads[id];
+    }
+
+    DebugInfo debugInfo(int id) {
+        return this.debugInfos[id];
+    }
+
+    int inputCount(int id) {
+        return this.inputCounts[id];
+    }
+
+    Node input(int id, int index) {
+        Objects.checkIndex(index, this.inputCounts[id]);
+        return this.nodes[this.inputs[this.inputStarts[id] + index]];
+    }
+
+    void setInput(int id, int index, Node input) {
+        Objects.checkIndex(index, this.inputCounts[id]);
+        int slot = this.inputStarts[id] + index;
+        removeUse(this.inputs[slot], id);
+        this.inputs[slot] = input.id();
+        addUse(input.id(), id);
+    }
+
+    void appendInput(int id, Node input) {
+        int count = this.inputCounts[id];
+        if (count == this.inputCapacities[id]) {
+            int capacity = Math.max(2, count * 2);
+            int start = allocateInputs(capacity);
+            System.arraycopy(this.inputs, this.inputStarts[id], this.inputs, start, count);
+            this.inputStarts[id] = start;
+            this.inputCapacities[id] = capacity;
+        }
+        this.inputs[this.inputStarts[id] + count] = input.id();
+        this.inputCounts[id] = count + 1;
+        addUse(input.id(), id);
+    }
+
+    void clearInputs(int id) {
+        int start = this.inputStarts[id];
+        for (int i = 0; i < this.inputCounts[id]; i++) {
+            removeUse(this.inputs[start + i], id);
+        }
+        this.inputCounts[id] = 0;
+    }
+
+    private void grow(int capacity) {
+        this.nodes = Arrays.copyOf(this.nodes, capacity);
+        this.blocks = Arrays.copyOf(this.blocks, capacity);
+        this.payloads = Arrays.copyOf(this.payloads, capacity);
+        this.debugInfos = Arrays.copyOf(this.debugInfos, capacity);
+        this.inputStarts = Arrays.copyOf(this.inputStarts, capacity);
+        this.inputCounts = Arrays.copyOf(this.inputCounts, capacity);
+        this.inputCapacities = Arrays.copyOf(this.inputCapacities, capacity);
+        this.firstUses = Arrays.copyOf(this.firstUses, capacity);
+    }
+
+    /// Releases the capacity reserved for more nodes and edges.
+    /// Called once a graph is complete, as the arrays can be up to twice as large as needed while it is built.
+    public void trimToSize() {
+        grow(this.count);
+        this.inputs = Arrays.copyOf(this.inputs, this.inputsSize);
+        this.users = Arrays.copyOf(this.users, this.usesSize);
+        this.nextUses = Arrays.copyOf(this.nextUses, this.usesSize);
+    }
+
+    // reserves slots for inputs at the end of the shared array
+    private int allocateInputs(int capacity) {
+        if (this.inputsSize + capacity > this.inputs.length) {
+            int size = Math.max(INITIAL_CAPACITY, Math.max(this.inputs.length * 2, this.inputsSize + capacity));
+            this.inputs = Arrays.copyOf(this.inputs, size);
+        }
+        int start = this.inputsSize;
+        this.inputsSize += capacity;
+        return start;
+    }
+
+    private void addUse(int id, int user) {
+        if (this.usesSize == this.users.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, this.usesSize * 2);
+            this.users = Arrays.copyOf(this.users, capacity);
+            this.nextUses = Arrays.copyOf(this.nextUses, capacity);
+        }
+        int use = this.usesSize++;
+        this.users[use] = user;
+        this.nextUses[use] = this.firstUses[id];
+        this.firstUses[id] = use;
+    }
+
+    // unlinks the most recent use of the node by the user
+    private void removeUse(int id, int user) {
+        int previous = NONE;
+        for (int use = this.firstUses[id]; use != NONE; previous = use, use = this.nextUses[use]) {
+            if (this.users[use] == user) {
+                if (previous == NONE) {
+                    this.firstUses[id] = this.nextUses[use];
+                } else {
+                    this.nextUses[previous] = this.nextUses[use];
+                }
+                return;
+            }
+        }
+    }
+}
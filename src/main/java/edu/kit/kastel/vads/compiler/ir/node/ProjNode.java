@@ -2,20 +2,38 @@ package edu.kit.kastel.vads.compiler.ir.node;
 
 public final class ProjNode extends Node {
     public static final int IN = 0;
-    private final ProjectionInfo projectionInfo;
+    private static final SimpleProjectionInfo[] PROJECTIONS = SimpleProjectionInfo.values();
 
     public ProjNode(Block block, Node in, ProjectionInfo projectionInfo) {
-        super(block, in);
-        this.projectionInfo = projectionInfo;
+        super(block, encode(projectionInfo), in);
+    }
+
+    @Override
+    public boolean congruent(Node other) {
+        return other instanceof ProjNode proj
+            && proj.projectionInfo() == projectionInfo()
+            && proj.predecessor(IN) == predecessor(IN);
+    }
+
+    @Override
+    public int congruenceHashCode() {
+        return predecessorHash(this, IN) * 31 + payload();
     }
 
     @Override
     protected String info() {
-        return this.projectionInfo.toString();
+        return projectionInfo().toString();
     }
 
     public ProjectionInfo projectionInfo() {
-        return projectionInfo;
+        return PROJECTIONS[payload()];
+    }
+
+    // the projection is stored as the payload of the node
+    private static int encode(ProjectionInfo projectionInfo) {
+        return switch (projectionInfo) {
+            case SimpleProjectionInfo info -> info.ordinal();
+        };
     }
 
     public sealed interface ProjectionInfo {
@@ -0,0 +1,52 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+
+import static edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode.LEFT;
+import static edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode.RIGHT;
+
+/// Replaces operations by an equivalent operand or constant where an algebraic identity applies,
+/// like `x + 0`, `x * 1`, `x * 0`, `x - x` and `0 - (0 - x)`.
+/// The identities hold for 32-bit wraparound arithmetic. Divisions are only removed for `x / 1` and `x % 1`,
+/// as dividing by -1 traps for [Integer#MIN_VALUE].
+///
+/// The transformed nodes are expected to be new and unused, the ones that are replaced are detached from
+/// their inputs.
+public class AlgebraicSimplification implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        return switch (node) {
+            case AddNode add when isConstant(add.predecessor(RIGHT), 0) -> replace(add, add.predecessor(LEFT));
+            case AddNode add when isConstant(add.predecessor(LEFT), 0) -> replace(add, add.predecessor(RIGHT));
+            case SubNode sub when isConstant(sub.predecessor(RIGHT), 0) -> replace(sub, sub.predecessor(LEFT));
+            case SubNode sub when sub.predecessor(LEFT) == sub.predecessor(RIGHT) -> ConstantFolding.constant(sub, 0);
+            case SubNode sub when isConstant(sub.predecessor(LEFT), 0)
+                && sub.predecessor(RIGHT) instanceof SubNode inner
+                && isConstant(inner.predecessor(LEFT), 0) -> replace(sub, inner.predecessor(RIGHT));
+            case MulNode mul when isConstant(mul.predecessor(RIGHT), 1) -> replace(mul, mul.predecessor(LEFT));
+            case MulNode mul when isConstant(mul.predecessor(LEFT), 1) -> replace(mul, mul.predecessor(RIGHT));
+            // the constant zero is the result
+            case MulNode mul when isConstant(mul.predecessor(RIGHT), 0) -> replace(mul, mul.predecessor(RIGHT));
+            case MulNode mul when isConstant(mul.predecessor(LEFT), 0) -> replace(mul, mul.predecessor(LEFT));
+            case DivNode div when isConstant(div.predecessor(RIGHT), 1) -> replace(div, div.predecessor(LEFT));
+            case ModNode mod when isConstant(mod.predecessor(RIGHT), 1) -> ConstantFolding.constant(mod, 0);
+            default -> node;
+        };
+    }
+
+    private static boolean isConstant(Node node, int value) {
+        return node instanceof ConstIntNode constant && constant.value() == value;
+    }
+
+    private static Node replace(Node replaced, Node replacement) {
+        replaced.clearPredecessors();
+        return replacement;
+    }
+}
@@ -0,0 +1,61 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+
+/// Replaces operations on constants by their result.
+/// Java's `int` arithmetic wraps around and truncates divisions towards zero like the target does,
+/// so the results are the same as at runtime.
+/// Divisions and modulos that trap, by zero or of [Integer#MIN_VALUE] by -1, are kept so the program still fails.
+///
+/// The transformed nodes are expected to be new and unused, the ones that are replaced are detached from
+/// their inputs.
+public class ConstantFolding implements Optimizer {
+
+    @Override
+    public Node transform(Node node) {
+        if (!(node instanceof BinaryOperationNode operation)
+            || !(operation.predecessor(BinaryOperationNode.LEFT) instanceof ConstIntNode left)
+            || !(operation.predecessor(BinaryOperationNode.RIGHT) instanceof ConstIntNode right)) {
+            return node;
+        }
+        int l = left.value();
+        int r = right.value();
+        int value;
+        switch (operation) {
+            case AddNode _ -> value = l + r;
+            case SubNode _ -> value = l - r;
+            case MulNode _ -> value = l * r;
+            case DivNode _ -> {
+                if (traps(l, r)) {
+                    return node;
+                }
+                value = l / r;
+            }
+            case ModNode _ -> {
+                if (traps(l, r)) {
+                    return node;
+                }
+                value = l % r;
+            }
+        }
+        return constant(node, value);
+    }
+
+    // the division instruction fails for these, even for modulo
+    private static boolean traps(int dividend, int divisor) {
+        return divisor == 0 || dividend == Integer.MIN_VALUE && divisor == -1;
+    }
+
+    /// {@return a new constant in the start block that replaces the node}
+    static Node constant(Node replaced, int value) {
+        replaced.clearPredecessors();
+        return new ConstIntNode(replaced.graph().startBlock(), value);
+    }
+}
@@ -2,19 +2,43 @@ package edu.kit.kastel.vads.compiler.ir.optimize;
 
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /// This depends on [Node#equals(java.lang.Object)] and  [Node#hashCode()] methods.
 /// As long as they take the block into account, it is only local, but replacement
 /// is extremely simple.
 /// When using classes like [HashMap] or [java.util.HashSet] without this optimization,
 /// the [Node#equals(java.lang.Object)] and  [Node#hashCode()] methods must be adjusted.
+///
+/// As the hash of a node depends on its inputs, rewired nodes are removed before and put back after the rewiring.
 public class LocalValueNumbering implements Optimizer {
     private final Map<Node, Node> knownNodes = new HashMap<>();
+    // the known nodes that are being rewired, by identity as their equality changes meanwhile
+    private final Set<Node> rewired = Collections.newSetFromMap(new IdentityHashMap<>());
 
     @Override
     public Node transform(Node node) {
         return this.knownNodes.computeIfAbsent(node, n -> n);
     }
+
+    @Override
+    public void beforeRewire(Node node) {
+        // an equal node may be known instead, it keeps its inputs and its entry
+        if (this.knownNodes.get(node) == node) {
+            this.knownNodes.remove(node);
+            this.rewired.add(node);
+        }
+    }
+
+    @Override
+    public void afterRewire(Node node) {
+        // a rewired node that equals a known one now is not merged with it, later lookups find the known one
+        if (this.rewired.remove(node)) {
+            this.knownNodes.putIfAbsent(node, node);
+        }
+    }
 }
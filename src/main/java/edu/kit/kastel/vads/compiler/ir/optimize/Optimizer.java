@@ -3,7 +3,42 @@ package edu.kit.kastel.vads.compiler.ir.optimize;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 
 /// An interface that allows replacing a node with a more optimal one.
+///
+/// Optimizers may keep state about the nodes they have seen and are not thread-safe.
+/// Each graph gets its own instance, so graphs can still be built in parallel.
 public interface Optimizer {
 
     Node transform(Node node);
+
+    /// Called before the inputs of a node that may have been transformed are rewired.
+    /// Optimizers that look up nodes by their inputs must drop the node, as its hash is about to change.
+    default void beforeRewire(Node node) {
+    }
+
+    /// Called after the inputs of a node were rewired, see [#beforeRewire(Node)].
+    default void afterRewire(Node node) {
+    }
+
+    /// {@return an optimizer that applies this one and then the given one to the result}
+    default Optimizer andThen(Optimizer next) {
+        Optimizer first = this;
+        return new Optimizer() {
+            @Override
+            public Node transform(Node node) {
+                return next.transform(first.transform(node));
+            }
+
+            @Override
+            public void beforeRewire(Node node) {
+                first.beforeRewire(node);
+                next.beforeRewire(node);
+            }
+
+            @Override
+            public void afterRewire(Node node) {
+                first.afterRewire(node);
+                next.afterRewire(node);
+            }
+        };
+    }
 }
@@ -3,32 +3,40 @@ package edu.kit.kastel.vads.compiler.ir.passes.analysis;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public abstract class BackwardsControlFlow<InValue, OutValue> extends BackwardsFlow<InValue, OutValue> {
 
-    private final Map<IrGraph, List<Node>> graphNodeOrder = new HashMap<>();
+    private List<Node> order = List.of();
+    // the index of each node in the order, by node id, so neighbours are found without searching the order
+    private int[] nodeIndices = new int[0];
 
     @Override
     public void analyze(IrGraph graph) {
-        this.graphNodeOrder.put(graph, graph.nodesInReversePostOrder());
+        this.order = graph.nodesInReversePostOrder();
+        this.nodeIndices = new int[graph.nodeCount()];
+        Arrays.fill(this.nodeIndices, -1);
+        for (int i = 0; i < this.order.size(); i++) {
+            this.nodeIndices[this.order.get(i).id()] = i;
+        }
         super.analyze(graph);
     }
 
     @Override
     public List<Node> predecessors(Node node) {
-        List<Node> nodes = graphNodeOrder.get(node.graph());
-        int idx = nodes.indexOf(node);
-        return (idx > 0) ? List.of(nodes.get(idx - 1)) : Collections.emptyList();
+        int idx = index(node);
+        return (idx > 0) ? List.of(this.order.get(idx - 1)) : Collections.emptyList();
     }
 
     @Override
     public List<Node> successors(Node node) {
-        List<Node> nodes = graphNodeOrder.get(node.graph());
-        int idx = nodes.indexOf(node);
-        return (idx < nodes.size() - 1) ? List.of(nodes.get(idx + 1)) : Collections.emptyList();
+        int idx = index(node);
+        return (idx < this.order.size() - 1) ? List.of(this.order.get(idx + 1)) : Collections.emptyList();
+    }
+
+    private int index(Node node) {
+        return node.id() < this.nodeIndices.length ? this.nodeIndices[node.id()] : -1;
     }
 }
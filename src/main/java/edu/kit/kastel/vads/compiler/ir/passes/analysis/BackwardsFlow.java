@@ -3,45 +3,65 @@ package edu.kit.kastel.vads.compiler.ir.passes.analysis;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.passes.IrAnalysisPass;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import org.jspecify.annotations.Nullable;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 import java.util.Collections;
 
+/// A backwards data flow analysis of one graph.
+/// The values are kept in [NodeMap]s of the analyzed graph, analyzing another graph discards them.
 public abstract class BackwardsFlow<InValue, OutValue>
         implements IrAnalysisPass<Map<Node, BackwardsFlow.BackwardsFlowResult<InValue, OutValue>>> {
 
+    private @Nullable IrGraph graph;
     // Caches the last analyzed inValues from each node's successors
-    private Map<Node, List<InValue>> previousSuccIn = new HashMap<>();
-    private final Map<Node, OutValue> out = new HashMap<>();
-    private final Map<Node, InValue> in = new HashMap<>();
+    private Map<Node, List<InValue>> previousSuccIn = Map.of();
+    private Map<Node, OutValue> out = Map.of();
+    private Map<Node, InValue> in = Map.of();
 
     public record BackwardsFlowResult<IV, OV>(IV inValue, OV outValue) {
     }
 
     public Map<Node, BackwardsFlowResult<InValue, OutValue>> getResult() {
-        return Collections.unmodifiableMap(
-                in.keySet().stream()
-                        .collect(Collectors.toMap(
-                                key -> key,
-                                key -> new BackwardsFlowResult<>(in.get(key), out.get(key)))));
+        if (this.graph == null) {
+            return Map.of();
+        }
+        NodeMap<BackwardsFlowResult<InValue, OutValue>> result = new NodeMap<>(this.graph);
+        this.in.forEach((node, inValue) -> result.put(node, new BackwardsFlowResult<>(inValue, this.out.get(node))));
+        return Collections.unmodifiableMap(result);
     }
 
     public void analyze(IrGraph graph) {
-        analyzeNode(graph, graph.endBlock());
+        this.graph = graph;
+        this.previousSuccIn = new NodeMap<>(graph);
+        this.out = new NodeMap<>(graph);
+        this.in = new NodeMap<>(graph);
+        // depth-first, like a recursive traversal of the predecessors, but on an explicit stack
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(graph.endBlock());
+        while (!pending.isEmpty()) {
+            List<Node> predecessors = analyzeNode(pending.pop());
+            for (int i = predecessors.size() - 1; i >= 0; i--) {
+                pending.push(predecessors.get(i));
+            }
+        }
     }
 
-    private void analyzeNode(IrGraph graph, Node node) {
+    /// Updates the values of the given node.
+    /// @return the predecessors that need to be updated as well
+    private List<Node> analyzeNode(Node node) {
         List<InValue> inValues = successors(node).stream()
                 .map(successorNode -> in.get(successorNode))
-                .collect(Collectors.toList());
+                .toList();
 
         // Exit early if inValues have not changed
         if (Objects.equals(previousSuccIn.get(node), inValues)) {
-            return;
+            return List.of();
         }
 
         OutValue outValue = computeOutValue(node, inValues);
@@ -52,9 +72,7 @@ public abstract class BackwardsFlow<InValue, OutValue>
 
         previousSuccIn.put(node, inValues);
 
-        for (Node predecessor : predecessors(node)) {
-            analyzeNode(graph, predecessor);
-        }
+        return predecessors(node);
     }
 
     public abstract List<Node> predecessors(Node node);
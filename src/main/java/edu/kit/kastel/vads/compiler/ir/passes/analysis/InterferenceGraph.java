@@ -4,20 +4,24 @@ import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
 import edu.kit.kastel.vads.compiler.backend.regalloc.RegisterRequirement;
 import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
-
-import org.jgrapht.Graph;
-import org.jgrapht.graph.SimpleGraph;
-import org.jgrapht.graph.DefaultEdge;
 
 public class InterferenceGraph {
     // Undirected, unweighted and irreflexive graph
-    private final Graph<Node, DefaultEdge> g;
+    // the neighbours of each node are kept in the order their edges were added, and as a set to skip duplicate edges
+    private final List<Node> vertices;
+    private final NodeMap<List<Node>> neighbours;
+    private final NodeMap<NodeSet> adjacent;
+    private final IrGraph graph;
     private Integer maxColor = 0;
 
     public InterferenceGraph(IrGraph graph) {
@@ -25,13 +29,17 @@ public class InterferenceGraph {
         livenessAnalysis.analyze(graph);
         var liveness = livenessAnalysis.getResult();
 
-        this.g = new SimpleGraph<>(DefaultEdge.class);
+        this.graph = graph;
+        this.neighbours = new NodeMap<>(graph);
+        this.adjacent = new NodeMap<>(graph);
         List<Node> nodes = graph.nodesInReversePostOrder().stream()
                 .filter(RegisterRequirement::needsRegister)
                 .toList();
         for (Node node : nodes) {
-            g.addVertex(node);
+            this.neighbours.put(node, new ArrayList<>());
+            this.adjacent.put(node, new NodeSet(graph));
         }
+        this.vertices = nodes;
 
         for (Node node : nodes) {
             var liveOut = liveness.get(node).outValue();
@@ -40,9 +48,9 @@ public class InterferenceGraph {
                 case BinaryOperationNode _ -> {
                     // All nodes in liveOut != node are interfering with node
                     liveOut.stream()
-                            .filter(otherNode -> !otherNode.equals(node))
+                            .filter(otherNode -> otherNode != node)
                             .filter(RegisterRequirement::needsRegister)
-                            .forEach(otherNode -> g.addEdge(node, otherNode));
+                            .forEach(otherNode -> addEdge(node, otherNode));
                 }
                 default -> {
                 }
@@ -50,11 +58,19 @@ public class InterferenceGraph {
         }
     }
 
+    private void addEdge(Node a, Node b) {
+        if (this.adjacent.get(a).add(b)) {
+            this.adjacent.get(b).add(a);
+            this.neighbours.get(a).add(b);
+            this.neighbours.get(b).add(a);
+        }
+    }
+
     // TODO: Implement pre-coloring for operations that require specific registers
     public Map<Node, Integer> color() {
         Node[] elimOrder = simplicialEliminationOrder();
         int maxDegree = maxDegree();
-        Map<Node, Integer> colorMap = new HashMap<>();
+        Map<Node, Integer> colorMap = new NodeMap<>(this.graph);
         for (Node node : elimOrder) {
             Integer color = lowestUnusedColorInNeighborhood(node, colorMap);
             colorMap.put(node, color);
@@ -70,57 +86,63 @@ public class InterferenceGraph {
     }
 
     private Integer lowestUnusedColorInNeighborhood(Node node, Map<Node, Integer> colorMap) {
-        Set<Integer> colorsUsedByNeighbor = new HashSet<>();
-        for (DefaultEdge edge : g.edgesOf(node)) {
-            Node neighbor = g.getEdgeSource(edge).equals(node) ? g.getEdgeTarget(edge) : g.getEdgeSource(edge);
-            if (colorMap.containsKey(neighbor)) {
-                colorsUsedByNeighbor.add(colorMap.get(neighbor));
+        BitSet colorsUsedByNeighbor = new BitSet();
+        for (Node neighbor : this.neighbours.get(node)) {
+            Integer color = colorMap.get(neighbor);
+            if (color != null) {
+                colorsUsedByNeighbor.set(color);
             }
         }
-
-        int color = 0;
-        while (colorsUsedByNeighbor.contains(color)) {
-            color++;
-        }
-        return color;
+        return colorsUsedByNeighbor.nextClearBit(0);
     }
 
     private Node[] simplicialEliminationOrder() {
-        Node[] order = new Node[g.vertexSet().size()];
-        Map<Node, Integer> weight = new HashMap<>();
-        Set<Node> W = new HashSet<>(g.vertexSet());
-
-        for (Node v : W) {
-            weight.put(v, 0);
+        // maximum cardinality search, the remaining nodes are kept in buckets by their weight,
+        // so finding a node with maximum weight does not need to look at all remaining nodes
+        Node[] order = new Node[this.vertices.size()];
+        // the weight of each node by id, -1 for nodes that are not in W
+        int[] weight = new int[this.graph.nodeCount()];
+        Arrays.fill(weight, -1);
+        List<Set<Node>> buckets = new ArrayList<>();
+        buckets.add(new LinkedHashSet<>(this.vertices));
+
+        for (Node v : this.vertices) {
+            weight[v.id()] = 0;
         }
 
-        int n = W.size();
-        for (int i = 0; i < n; i++) {
+        int maxWeight = 0;
+        for (int i = 0; i < order.length; i++) {
             // Find node with maximum weight in W
-            Node maxNode = null;
-            for (Node v : W) {
-                if (maxNode == null || weight.get(v) > weight.get(maxNode)) {
-                    maxNode = v;
-                }
+            while (buckets.get(maxWeight).isEmpty()) {
+                maxWeight--;
             }
+            Node maxNode = buckets.get(maxWeight).iterator().next();
+            buckets.get(maxWeight).remove(maxNode);
+            // nodes without weight are not in W anymore
+            weight[maxNode.id()] = -1;
             // Store the node in the order
             order[i] = maxNode;
 
             // For all u in W ∩ N(v), increment weight
-            for (DefaultEdge e : g.edgesOf(maxNode)) {
-                Node u = g.getEdgeSource(e).equals(maxNode) ? g.getEdgeTarget(e) : g.getEdgeSource(e);
-                if (W.contains(u) && !u.equals(maxNode)) {
-                    weight.put(u, weight.get(u) + 1);
+            for (Node u : this.neighbours.get(maxNode)) {
+                int w = weight[u.id()];
+                if (w >= 0) {
+                    buckets.get(w).remove(u);
+                    weight[u.id()] = w + 1;
+                    if (buckets.size() == w + 1) {
+                        buckets.add(new LinkedHashSet<>());
+                    }
+                    buckets.get(w + 1).add(u);
+                    maxWeight = Math.max(maxWeight, w + 1);
                 }
             }
-            W.remove(maxNode);
         }
         return order;
     }
 
     private int maxDegree() {
-        return g.vertexSet().stream()
-                .mapToInt(g::degreeOf)
+        return this.vertices.stream()
+                .mapToInt(node -> this.neighbours.get(node).size())
                 .max()
                 .orElse(0);
     }
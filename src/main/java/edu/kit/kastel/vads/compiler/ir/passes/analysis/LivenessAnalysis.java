@@ -5,13 +5,12 @@ import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
 import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
 import edu.kit.kastel.vads.compiler.ir.node.Node;
 import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
 import edu.kit.kastel.vads.compiler.ir.util.NodeSupport;
 
 import java.util.List;
-import java.util.Set;
-import java.util.HashSet;
 
-public class LivenessAnalysis extends BackwardsControlFlow<Set<Node>, Set<Node>> {
+public class LivenessAnalysis extends BackwardsControlFlow<NodeSet, NodeSet> {
 
     @Override
     public void analyze(IrGraph graph) {
@@ -21,55 +20,38 @@ public class LivenessAnalysis extends BackwardsControlFlow<Set<Node>, Set<Node>>
     }
 
     @Override
-    public Set<Node> computeInValue(Node node, Set<Node> liveOut) {
-        Set<Node> defs = defs(node);
-        Set<Node> uses = uses(node);
-
-        // liveOut - defs
-        Set<Node> tmp = new HashSet<>(liveOut);
-        tmp.removeAll(defs);
-
-        // liveIn = uses + tmp
-        Set<Node> liveIn = new HashSet<>(uses);
-        liveIn.addAll(tmp);
+    public NodeSet computeInValue(Node node, NodeSet liveOut) {
+        // liveIn = uses + (liveOut - defs)
+        NodeSet liveIn = new NodeSet(liveOut);
+        if (defines(node)) {
+            liveIn.remove(node);
+        }
+        addUses(node, liveIn);
         return liveIn;
     }
 
     @Override
-    public Set<Node> computeOutValue(Node node, List<Set<Node>> liveIn) {
-        Set<Node> liveOut = new HashSet<>();
-        for (Set<Node> inValue : liveIn) {
+    public NodeSet computeOutValue(Node node, List<NodeSet> liveIn) {
+        NodeSet liveOut = new NodeSet(node.graph());
+        for (NodeSet inValue : liveIn) {
             liveOut.addAll(inValue);
         }
         return liveOut;
 
     }
 
-    private Set<Node> defs(Node node) {
-        switch (node) {
-            case BinaryOperationNode _,ConstIntNode _ -> {
-                return Set.of(node);
-            }
-            default -> {
-                return Set.of();
-            }
-        }
+    private static boolean defines(Node node) {
+        return node instanceof BinaryOperationNode || node instanceof ConstIntNode;
     }
 
-    private Set<Node> uses(Node node) {
+    private static void addUses(Node node, NodeSet uses) {
         switch (node) {
             case BinaryOperationNode _ -> {
-                Set<Node> uses = new HashSet<>();
                 uses.add(NodeSupport.predecessorSkipProj(node, BinaryOperationNode.LEFT));
                 uses.add(NodeSupport.predecessorSkipProj(node, BinaryOperationNode.RIGHT));
-                return uses;
-            }
-            case ReturnNode _ -> {
-                Node result = NodeSupport.predecessorSkipProj(node, ReturnNode.RESULT);
-                return Set.of(result);
             }
+            case ReturnNode _ -> uses.add(NodeSupport.predecessorSkipProj(node, ReturnNode.RESULT));
             default -> {
-                return Set.of();
             }
         }
     }
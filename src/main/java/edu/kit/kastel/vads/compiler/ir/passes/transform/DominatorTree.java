@@ -0,0 +1,125 @@
+package edu.kit.kastel.vads.compiler.ir.passes.transform;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/// The dominator tree of the blocks of a graph, computed with the iterative algorithm by Cooper, Harvey and
+/// Kennedy. Control flow goes from the block of each predecessor of a block to the block itself.
+/// Blocks that cannot be reached from the start block are not part of the tree.
+final class DominatorTree {
+    private static final int UNDEFINED = -1;
+
+    private final NodeMap<List<Block>> children;
+
+    /// @param blocks the blocks of the graph
+    DominatorTree(IrGraph graph, NodeSet blocks) {
+        NodeMap<List<Block>> successors = new NodeMap<>(graph);
+        for (Node node : blocks) {
+            Block block = (Block) node;
+            for (int i = 0; i < block.predecessorCount(); i++) {
+                successors.computeIfAbsent(block.predecessor(i).block(), _ -> new ArrayList<>()).add(block);
+            }
+        }
+        List<Block> postOrder = postOrder(graph.startBlock(), successors);
+        int[] numbers = new int[graph.nodeCount()];
+        Arrays.fill(numbers, UNDEFINED);
+        for (int i = 0; i < postOrder.size(); i++) {
+            numbers[postOrder.get(i).id()] = i;
+        }
+
+        // the immediate dominator of each block, by post order number
+        int[] dominators = new int[postOrder.size()];
+        Arrays.fill(dominators, UNDEFINED);
+        int start = postOrder.size() - 1;
+        dominators[start] = start;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // reverse post order, so most predecessors are done before their successors
+            for (int i = start - 1; i >= 0; i--) {
+                Block block = postOrder.get(i);
+                int dominator = UNDEFINED;
+                for (int j = 0; j < block.predecessorCount(); j++) {
+                    int predecessor = numbers[block.predecessor(j).block().id()];
+                    if (predecessor == UNDEFINED || dominators[predecessor] == UNDEFINED) {
+                        continue;
+                    }
+                    dominator = dominator == UNDEFINED ? predecessor : intersect(dominators, dominator, predecessor);
+                }
+                if (dominators[i] != dominator) {
+                    dominators[i] = dominator;
+                    changed = true;
+                }
+            }
+        }
+
+        this.children = new NodeMap<>(graph);
+        for (int i = start - 1; i >= 0; i--) {
+            Block dominator = postOrder.get(dominators[i]);
+            this.children.computeIfAbsent(dominator, _ -> new ArrayList<>()).add(postOrder.get(i));
+        }
+    }
+
+    /// {@return the blocks each block immediately dominates}
+    /// Blocks that do not dominate any other block have no entry.
+    NodeMap<List<Block>> children() {
+        return this.children;
+    }
+
+    // the nearest common dominator of two blocks, by post order number
+    private static int intersect(int[] dominators, int a, int b) {
+        int finger1 = a;
+        int finger2 = b;
+        while (finger1 != finger2) {
+            while (finger1 < finger2) {
+                finger1 = dominators[finger1];
+            }
+            while (finger2 < finger1) {
+                finger2 = dominators[finger2];
+            }
+        }
+        return finger1;
+    }
+
+    // the blocks reachable from the start block, each one after all blocks reachable from it
+    private static List<Block> postOrder(Block start, NodeMap<List<Block>> successors) {
+        List<Block> result = new ArrayList<>();
+        NodeSet visited = new NodeSet(start.graph());
+        visited.add(start);
+        // each frame is a block and the index of its next successor
+        Deque<Frame> path = new ArrayDeque<>();
+        path.push(new Frame(start));
+        while (!path.isEmpty()) {
+            Frame frame = path.peek();
+            List<Block> next = successors.getOrDefault(frame.block, List.of());
+            if (frame.next < next.size()) {
+                Block successor = next.get(frame.next++);
+                if (visited.add(successor)) {
+                    path.push(new Frame(successor));
+                }
+            } else {
+                path.pop();
+                result.add(frame.block);
+            }
+        }
+        return result;
+    }
+
+    private static final class Frame {
+        private final Block block;
+        private int next;
+
+        Frame(Block block) {
+            this.block = block;
+        }
+    }
+}
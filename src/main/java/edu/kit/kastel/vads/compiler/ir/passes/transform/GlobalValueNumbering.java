@@ -0,0 +1,93 @@
+package edu.kit.kastel.vads.compiler.ir.passes.transform;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.passes.IrTransformPass;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// Merges [congruent][Node#congruent(Node)] nodes across blocks, so each value is computed once.
+///
+/// The blocks are visited in preorder of the dominator tree with a scoped table of the values computed so far.
+/// A node is replaced by a congruent one from its own or a dominating block, which is available wherever the node
+/// is used. The table entries of a block are dropped once its subtree is done, so siblings never see each other's
+/// values. Within a block, nodes are visited after their inputs, so their users see the merged inputs.
+///
+/// [LocalValueNumbering][edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering] already merges nodes of
+/// the same block while the graph is constructed, this pass finds the ones in different blocks.
+/// Replaced nodes are left in the graph without inputs or users.
+public class GlobalValueNumbering implements IrTransformPass {
+
+    @Override
+    public IrGraph transform(IrGraph graph) {
+        NodeMap<List<Node>> nodesByBlock = new NodeMap<>(graph);
+        NodeSet blocks = new NodeSet(graph);
+        for (Node node : graph.nodesInReversePostOrder()) {
+            blocks.add(node.block());
+            // phis may depend on values of later blocks, so they are left alone
+            if (!(node instanceof Block) && !(node instanceof Phi)) {
+                nodesByBlock.computeIfAbsent(node.block(), _ -> new ArrayList<>()).add(node);
+            }
+        }
+        NodeMap<List<Block>> children = new DominatorTree(graph, blocks).children();
+
+        Map<Value, Node> available = new HashMap<>();
+        // the values each block added, to remove them once its subtree is done
+        Deque<List<Value>> scopes = new ArrayDeque<>();
+        Deque<Visit> work = new ArrayDeque<>();
+        work.push(new Visit(graph.startBlock(), false));
+        while (!work.isEmpty()) {
+            Visit visit = work.pop();
+            if (visit.leave()) {
+                for (Value value : scopes.pop()) {
+                    available.remove(value);
+                }
+                continue;
+            }
+            Block block = visit.block();
+            List<Value> scope = new ArrayList<>();
+            for (Node node : nodesByBlock.getOrDefault(block, List.of())) {
+                Value value = new Value(node);
+                Node existing = available.putIfAbsent(value, node);
+                if (existing == null) {
+                    scope.add(value);
+                } else {
+                    graph.replace(node, existing);
+                    node.clearPredecessors();
+                }
+            }
+            scopes.push(scope);
+            work.push(new Visit(block, true));
+            for (Block child : children.getOrDefault(block, List.of())) {
+                work.push(new Visit(child, false));
+            }
+        }
+        return graph;
+    }
+
+    // entering a block, or leaving it once its subtree is done
+    private record Visit(Block block, boolean leave) {
+    }
+
+    // node keys compared by congruence instead of equality
+    private record Value(Node node) {
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Value other && this.node.congruent(other.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.node.congruenceHashCode();
+        }
+    }
+}
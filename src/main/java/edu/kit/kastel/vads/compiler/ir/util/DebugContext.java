@@ -0,0 +1,41 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.Span;
+
+/// Tracks the debug info that is attached to the nodes of a graph while it is built.
+/// Each graph has its own context, so graphs can be built on different threads without sharing any state.
+///
+/// If debug info is disabled, all nodes get [DebugInfo.NoInfo] and entering a span does not allocate.
+public final class DebugContext {
+    private final boolean enabled;
+    private DebugInfo current = DebugInfo.NoInfo.INSTANCE;
+
+    public DebugContext(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /// {@return whether nodes get debug info}
+    /// Spans that are expensive to create only need to be created if this is `true`.
+    public boolean enabled() {
+        return this.enabled;
+    }
+
+    /// {@return the debug info of nodes that are created now}
+    public DebugInfo current() {
+        return this.current;
+    }
+
+    /// Attaches the given span to all nodes created until the returned debug info is [restored][#restore(DebugInfo)].
+    /// @return the debug info before the span was entered
+    public DebugInfo enter(Span span) {
+        DebugInfo previous = this.current;
+        if (this.enabled) {
+            this.current = new DebugInfo.SourceInfo(span);
+        }
+        return previous;
+    }
+
+    public void restore(DebugInfo previous) {
+        this.current = previous;
+    }
+}
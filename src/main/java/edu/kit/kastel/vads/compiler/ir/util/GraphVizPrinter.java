@@ -44,9 +44,9 @@ public class GraphVizPrinter {
                 .add(node);
             prepare(node.block(), seen);
         }
-        int idx = 0;
-        for (Node predecessor : node.predecessors()) {
-            this.edges.add(new Edge(predecessor, node, idx++));
+        for (int idx = 0; idx < node.predecessorCount(); idx++) {
+            Node predecessor = node.predecessor(idx);
+            this.edges.add(new Edge(predecessor, node, idx));
             prepare(predecessor, seen);
         }
         if (node == this.graph.endBlock()) {
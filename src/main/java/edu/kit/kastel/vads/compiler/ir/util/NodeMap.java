@@ -0,0 +1,188 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import org.jspecify.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/// Maps the nodes of one graph to values, stored in an array indexed by their [ids][Node#id()].
+/// Keys are compared by identity and iterated in the order of their ids. Values must not be `null`.
+///
+/// The array is sized for all nodes of the graph, so this is meant for data most nodes have.
+/// Nodes created after the map are supported, the array grows when they are added.
+public final class NodeMap<T> extends AbstractMap<Node, T> {
+    private final IrGraph graph;
+    private @Nullable Object[] values;
+    private int size;
+    private int modCount;
+
+    public NodeMap(IrGraph graph) {
+        this.graph = graph;
+        this.values = new Object[graph.nodeCount()];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public @Nullable T get(Object key) {
+        if (!(key instanceof Node node) || node.graph() != this.graph || node.id() >= this.values.length) {
+            return null;
+        }
+        return value(node.id());
+    }
+
+    @Override
+    public @Nullable T put(Node key, T value) {
+        Objects.requireNonNull(value, "value");
+        if (key.graph() != this.graph) {
+            throw new IllegalArgumentException(key + " is not part of graph " + this.graph.name());
+        }
+        int id = key.id();
+        if (id >= this.values.length) {
+            this.values = Arrays.copyOf(this.values, Math.max(id + 1, this.graph.nodeCount()));
+        }
+        @Nullable T previous = value(id);
+        this.values[id] = value;
+        if (previous == null) {
+            this.size++;
+            this.modCount++;
+        }
+        return previous;
+    }
+
+    @Override
+    public @Nullable T remove(Object key) {
+        @Nullable T previous = get(key);
+        if (previous != null) {
+            this.values[((Node) key).id()] = null;
+            this.size--;
+            this.modCount++;
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Set<Entry<Node, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public int size() {
+                return NodeMap.this.size;
+            }
+
+            @Override
+            public Iterator<Entry<Node, T>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable T value(int id) {
+        return (T) this.values[id];
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Node, T>> {
+        private int expectedModCount = NodeMap.this.modCount;
+        private int next = nextId(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next < NodeMap.this.values.length;
+        }
+
+        @Override
+        public Entry<Node, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (this.expectedModCount != NodeMap.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            this.last = this.next;
+            this.next = nextId(this.next + 1);
+            return new NodeEntry(NodeMap.this.graph.node(this.last));
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            NodeMap.this.remove(NodeMap.this.graph.node(this.last));
+            this.last = -1;
+            this.expectedModCount = NodeMap.this.modCount;
+        }
+
+        private int nextId(int from) {
+            int id = from;
+            while (id < NodeMap.this.values.length && NodeMap.this.values[id] == null) {
+                id++;
+            }
+            return id;
+        }
+    }
+
+    // writes through to the map, like the entries of other maps
+    private final class NodeEntry implements Map.Entry<Node, T> {
+        private final Node node;
+
+        NodeEntry(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        public Node getKey() {
+            return this.node;
+        }
+
+        @Override
+        public T getValue() {
+            return Objects.requireNonNull(value(this.node.id()));
+        }
+
+        @Override
+        public T setValue(T value) {
+            return Objects.requireNonNull(put(this.node, value));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && this.node == e.getKey() && getValue().equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.node.hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.node + "=" + getValue();
+        }
+    }
+}
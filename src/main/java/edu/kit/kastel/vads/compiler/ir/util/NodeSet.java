@@ -0,0 +1,258 @@
+package edu.kit.kastel.vads.compiler.ir.util;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/// A set of nodes of one graph, stored as a bitset over their [ids][Node#id()].
+/// Nodes are compared by identity and iterated in the order of their ids.
+///
+/// Only the words that contain a node are stored, sorted by their index, so a set costs memory proportional
+/// to its contents and not to the size of the graph. Unions of two node sets merge their words without
+/// looking at the nodes.
+public final class NodeSet extends AbstractSet<Node> {
+    private static final int[] NO_INDICES = new int[0];
+    private static final long[] NO_WORDS = new long[0];
+
+    private final IrGraph graph;
+    // the indices of the non-empty words, ascending
+    private int[] indices;
+    private long[] words;
+    private int wordCount;
+    private int size;
+    private int modCount;
+
+    public NodeSet(IrGraph graph) {
+        this.graph = graph;
+        // most sets stay small, so the arrays are only allocated for the first node and grow as needed
+        this.indices = NO_INDICES;
+        this.words = NO_WORDS;
+    }
+
+    /// Creates a set that contains the same nodes as the given one.
+    public NodeSet(NodeSet other) {
+        this.graph = other.graph;
+        this.indices = Arrays.copyOf(other.indices, other.wordCount);
+        this.words = Arrays.copyOf(other.words, other.wordCount);
+        this.wordCount = other.wordCount;
+        this.size = other.size;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Node node) || node.graph() != this.graph) {
+            return false;
+        }
+        int position = find(node.id() >>> 6);
+        return position >= 0 && (this.words[position] & bit(node.id())) != 0;
+    }
+
+    @Override
+    public boolean add(Node node) {
+        checkGraph(node);
+        int index = node.id() >>> 6;
+        int position = find(index);
+        if (position < 0) {
+            position = insertWord(-position - 1, index);
+        } else if ((this.words[position] & bit(node.id())) != 0) {
+            return false;
+        }
+        this.words[position] |= bit(node.id());
+        this.size++;
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Node node) || node.graph() != this.graph) {
+            return false;
+        }
+        int position = find(node.id() >>> 6);
+        if (position < 0 || (this.words[position] & bit(node.id())) == 0) {
+            return false;
+        }
+        this.words[position] &= ~bit(node.id());
+        if (this.words[position] == 0) {
+            removeWord(position);
+        }
+        this.size--;
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Node> c) {
+        if (!(c instanceof NodeSet other) || other.graph != this.graph) {
+            return super.addAll(c);
+        }
+        if (other.size == 0) {
+            return false;
+        }
+        // merge the sorted words of both sets
+        int[] mergedIndices = new int[this.wordCount + other.wordCount];
+        long[] mergedWords = new long[mergedIndices.length];
+        int count = 0;
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.wordCount || j < other.wordCount) {
+            int index;
+            long word;
+            if (j == other.wordCount || i < this.wordCount && this.indices[i] < other.indices[j]) {
+                index = this.indices[i];
+                word = this.words[i++];
+            } else if (i == this.wordCount || other.indices[j] < this.indices[i]) {
+                index = other.indices[j];
+                word = other.words[j++];
+            } else {
+                index = this.indices[i];
+                word = this.words[i++] | other.words[j++];
+            }
+            mergedIndices[count] = index;
+            mergedWords[count++] = word;
+            size += Long.bitCount(word);
+        }
+        if (size == this.size) {
+            return false;
+        }
+        this.indices = count == mergedIndices.length ? mergedIndices : Arrays.copyOf(mergedIndices, count);
+        this.words = count == mergedWords.length ? mergedWords : Arrays.copyOf(mergedWords, count);
+        this.wordCount = count;
+        this.size = size;
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.wordCount = 0;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return new NodeIterator();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof NodeSet other) || other.graph != this.graph) {
+            return super.equals(o);
+        }
+        return this.size == other.size
+            && Arrays.equals(this.indices, 0, this.wordCount, other.indices, 0, other.wordCount)
+            && Arrays.equals(this.words, 0, this.wordCount, other.words, 0, other.wordCount);
+    }
+
+    private void checkGraph(Node node) {
+        if (node.graph() != this.graph) {
+            throw new IllegalArgumentException(node + " is not part of graph " + this.graph.name());
+        }
+    }
+
+    // the position of the word with the given index, or (-insertion point - 1) if it is not stored
+    private int find(int index) {
+        return Arrays.binarySearch(this.indices, 0, this.wordCount, index);
+    }
+
+    private int insertWord(int position, int index) {
+        if (this.wordCount == this.indices.length) {
+            int capacity = Math.max(1, this.wordCount * 2);
+            this.indices = Arrays.copyOf(this.indices, capacity);
+            this.words = Arrays.copyOf(this.words, capacity);
+        }
+        System.arraycopy(this.indices, position, this.indices, position + 1, this.wordCount - position);
+        System.arraycopy(this.words, position, this.words, position + 1, this.wordCount - position);
+        this.indices[position] = index;
+        this.words[position] = 0;
+        this.wordCount++;
+        return position;
+    }
+
+    private void removeWord(int position) {
+        System.arraycopy(this.indices, position + 1, this.indices, position, this.wordCount - position - 1);
+        System.arraycopy(this.words, position + 1, this.words, position, this.wordCount - position - 1);
+        this.wordCount--;
+    }
+
+    private static long bit(int id) {
+        return 1L << id;
+    }
+
+    private final class NodeIterator implements Iterator<Node> {
+        private int expectedModCount = NodeSet.this.modCount;
+        // the id of the next node, or -1 if there is none
+        private int next = nextId(0);
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return this.next >= 0;
+        }
+
+        @Override
+        public Node next() {
+            if (this.next < 0) {
+                throw new NoSuchElementException();
+            }
+            checkModCount();
+            this.last = this.next;
+            this.next = nextId(this.next + 1);
+            return NodeSet.this.graph.node(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            NodeSet.this.remove(NodeSet.this.graph.node(this.last));
+            this.last = -1;
+            this.expectedModCount = NodeSet.this.modCount;
+            // removing a word shifts the following ones, so the position of the next node is looked up again
+            if (this.next >= 0) {
+                this.next = nextId(this.next);
+            }
+        }
+
+        // the smallest id in this set that is >= from, or -1 if there is none
+        private int nextId(int from) {
+            int position = find(from >>> 6);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            for (; position < NodeSet.this.wordCount; position++) {
+                long word = NodeSet.this.words[position];
+                int base = NodeSet.this.indices[position] << 6;
+                if (base < from) {
+                    // only the part of the word after the last node is left
+                    word &= -1L << (from - base);
+                }
+                if (word != 0) {
+                    return base + Long.numberOfTrailingZeros(word);
+                }
+            }
+            return -1;
+        }
+
+        private void checkModCount() {
+            if (this.expectedModCount != NodeSet.this.modCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+}
@@ -12,12 +12,7 @@ import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
 import edu.kit.kastel.vads.compiler.ir.node.StartNode;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
@@ -26,14 +21,17 @@ import java.util.stream.IntStream;
 
 public class YCompPrinter {
 
-    private final Map<Block, Set<Node>> clusters = new HashMap<>();
-    private final Map<Node, Integer> ids = new HashMap<>();
+    // the nodes of each block, by block
+    private final NodeMap<Set<Node>> clusters;
+    private final NodeMap<Integer> ids;
     private final IrGraph graph;
     private int nodeCounter = 0;
     private int blockCounter = 0;
 
     public YCompPrinter(IrGraph graph) {
         this.graph = graph;
+        this.clusters = new NodeMap<>(graph);
+        this.ids = new NodeMap<>(graph);
     }
 
     private void prepare(Node node, Set<Node> seen) {
@@ -42,14 +40,12 @@ public class YCompPrinter {
         }
 
         if (!(node instanceof Block)) {
-            this.clusters.computeIfAbsent(
-                    node.block(),
-                    _ -> Collections.newSetFromMap(new IdentityHashMap<>()))
+            this.clusters.computeIfAbsent(node.block(), _ -> new NodeSet(this.graph))
                     .add(node);
             prepare(node.block(), seen);
         }
-        for (Node predecessor : node.predecessors()) {
-            prepare(predecessor, seen);
+        for (int i = 0; i < node.predecessorCount(); i++) {
+            prepare(node.predecessor(i), seen);
         }
         if (node == this.graph.endBlock()) {
             this.clusters.put(this.graph.endBlock(), Set.of());
@@ -58,7 +54,7 @@ public class YCompPrinter {
 
     public static String print(IrGraph graph) {
         YCompPrinter printer = new YCompPrinter(graph);
-        printer.prepare(graph.endBlock(), new HashSet<>());
+        printer.prepare(graph.endBlock(), new NodeSet(graph));
         return printer.dumpGraphAsString();
     }
 
@@ -98,8 +94,8 @@ public class YCompPrinter {
         result.append("\n  label: ").append('"').append(name).append('"');
         result.append("\n  color: ").append(VcgColor.ROOT_BLOCK.id());
 
-        for (Entry<Block, Set<Node>> entry : this.clusters.entrySet()) {
-            result.append("\n").append(formatBlock(entry.getKey(), entry.getValue()).indent(2));
+        for (Entry<Node, Set<Node>> entry : this.clusters.entrySet()) {
+            result.append("\n").append(formatBlock((Block) entry.getKey(), entry.getValue()).indent(2));
         }
 
         result.append("}");
@@ -142,7 +138,7 @@ public class YCompPrinter {
     }
 
     private String formatInputEdges(Node node) {
-        var edges = IntStream.range(0, node.predecessors().size())
+        var edges = IntStream.range(0, node.predecessorCount())
                 .mapToObj(
                         idx -> new Edge(
                                 node.predecessor(idx), node, idx, edgeColor(node.predecessor(idx), node)))
@@ -162,8 +158,8 @@ public class YCompPrinter {
 
     private String formatControlflowEdges(Block block) {
         StringJoiner result = new StringJoiner("\n");
-        List<? extends Node> parents = block.predecessors();
-        for (Node parent : parents) {
+        for (int i = 0; i < block.predecessorCount(); i++) {
+            Node parent = block.predecessor(i);
             if (parent instanceof ReturnNode) {
                 // Return needs no label
                 result.add(formatControlflowEdge(parent, block, ""));
@@ -0,0 +1,138 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/// A [CharSequence] view over UTF-8 encoded bytes, e.g. a memory-mapped source file.
+/// Every byte is exposed as one char, so ASCII input is lexed without any decoding.
+/// Bytes of multi-byte sequences show up as chars `>= 0x80`, which never form valid tokens;
+/// only the text of such error tokens is decoded, see [#sequenceLength(int)].
+///
+/// Searching for ASCII chars is done on 8 bytes at once, see [#indexOfAny(int, char, char, char, char)].
+public final class ByteSource implements CharSequence {
+    // little endian, so the first byte of a word is its least significant one
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long LOW_SEVEN_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private final MemorySegment segment;
+    private final int length;
+
+    public ByteSource(MemorySegment segment) {
+        if (segment.byteSize() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("source too large: " + segment.byteSize() + " bytes");
+        }
+        this.segment = segment;
+        this.length = (int) segment.byteSize();
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (this.segment.get(ValueLayout.JAVA_BYTE, index) & 0xFF);
+    }
+
+    /// {@return the number of bytes of the UTF-8 sequence starting at the given index}
+    /// Malformed or truncated sequences are treated as a single byte.
+    public int sequenceLength(int index) {
+        int lead = charAt(index);
+        int expected;
+        if (lead < 0x80) {
+            return 1;
+        } else if (lead >= 0xC0 && lead < 0xE0) {
+            expected = 2;
+        } else if (lead >= 0xE0 && lead < 0xF0) {
+            expected = 3;
+        } else if (lead >= 0xF0 && lead < 0xF8) {
+            expected = 4;
+        } else {
+            return 1;
+        }
+        if (index + expected > this.length) {
+            return 1;
+        }
+        for (int i = 1; i < expected; i++) {
+            if ((charAt(index + i) & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return expected;
+    }
+
+    /// {@return the index of the first byte at or after `from` that equals any of the given ASCII chars}
+    /// Returns [#length()] if there is no such byte.
+    public int indexOfAny(int from, char a, char b, char c, char d) {
+        long wordA = LOW_BITS * a;
+        long wordB = LOW_BITS * b;
+        long wordC = LOW_BITS * c;
+        long wordD = LOW_BITS * d;
+        int index = from;
+        for (; index + Long.BYTES <= this.length; index += Long.BYTES) {
+            long word = this.segment.get(WORD, index);
+            long matches = zeroBytes(word ^ wordA) | zeroBytes(word ^ wordB)
+                | zeroBytes(word ^ wordC) | zeroBytes(word ^ wordD);
+            if (matches != 0) {
+                return index + firstByte(matches);
+            }
+        }
+        for (; index < this.length; index++) {
+            char current = charAt(index);
+            if (current == a || current == b || current == c || current == d) {
+                return index;
+            }
+        }
+        return this.length;
+    }
+
+    /// {@return the index of the first byte at or after `from` that equals none of the given ASCII chars}
+    /// Returns [#length()] if there is no such byte.
+    public int indexOfNone(int from, char a, char b) {
+        long wordA = LOW_BITS * a;
+        long wordB = LOW_BITS * b;
+        int index = from;
+        for (; index + Long.BYTES <= this.length; index += Long.BYTES) {
+            long word = this.segment.get(WORD, index);
+            long mismatches = ~zeroBytes(word ^ wordA) & ~zeroBytes(word ^ wordB) & HIGH_BITS;
+            if (mismatches != 0) {
+                return index + firstByte(mismatches);
+            }
+        }
+        for (; index < this.length; index++) {
+            char current = charAt(index);
+            if (current != a && current != b) {
+                return index;
+            }
+        }
+        return this.length;
+    }
+
+    /// {@return a word with the high bit set in exactly those bytes that are zero in the given word}
+    private static long zeroBytes(long word) {
+        // adding 0x7F to the lower seven bits sets the high bit for all non-zero bytes without carrying over
+        long nonZero = ((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word;
+        return ~nonZero & HIGH_BITS;
+    }
+
+    /// {@return the index of the lowest byte with its high bit set}
+    private static int firstByte(long highBits) {
+        return Long.numberOfTrailingZeros(highBits) >>> 3;
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        byte[] bytes = this.segment.asSlice(start, end - start).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, this.length);
+    }
+}
@@ -0,0 +1,36 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+/// A lookup table classifying the first 256 chars, so the [Lexer] can test
+/// for identifier chars and digits with a single load instead of a chain of range checks.
+/// All other chars belong to no class.
+final class CharClass {
+    static final int IDENTIFIER = 1;
+    static final int DIGIT = 1 << 1;
+    static final int HEX_DIGIT = 1 << 2;
+
+    private static final byte[] CLASSES = new byte[256];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] |= IDENTIFIER;
+            CLASSES[Character.toUpperCase(c)] |= IDENTIFIER;
+        }
+        CLASSES['_'] |= IDENTIFIER;
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] |= IDENTIFIER | DIGIT | HEX_DIGIT;
+        }
+        for (char c = 'a'; c <= 'f'; c++) {
+            CLASSES[c] |= HEX_DIGIT;
+            CLASSES[Character.toUpperCase(c)] |= HEX_DIGIT;
+        }
+    }
+
+    private CharClass() {
+
+    }
+
+    /// {@return whether the given char belongs to any of the given classes}
+    static boolean is(char c, int classes) {
+        return c < CLASSES.length && (CLASSES[c] & classes) != 0;
+    }
+}
@@ -2,7 +2,9 @@ package edu.kit.kastel.vads.compiler.lexer;
 
 import edu.kit.kastel.vads.compiler.Span;
 
-public record Identifier(String value, Span span) implements Token {
+/// An identifier token.
+/// @param symbol the id the identifier is interned with in [Symbols]
+public record Identifier(String value, int symbol, Span span) implements Token {
     @Override
     public String asString() {
         return value();
@@ -0,0 +1,108 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.jspecify.annotations.Nullable;
+
+/// A perfect hash table over all [KeywordType]s.
+/// The hash only looks at the first char, the last char and the length of a word,
+/// so keywords can be recognized directly in the source without creating a substring first.
+/// The multipliers are searched once when the class is initialized, so adding keywords
+/// does not require any manual tuning. Keywords that this hash cannot separate fail the initialization
+/// with an [IllegalStateException] instead of searching forever.
+final class KeywordTable {
+    // the search tries size * size factor pairs per table size, so it must stop at some point
+    private static final int MAX_TABLE_SIZE = 256;
+    private static final int MIN_LENGTH;
+    private static final int MAX_LENGTH;
+    private static final Layout LAYOUT;
+
+    static {
+        KeywordType[] keywords = KeywordType.values();
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (KeywordType keyword : keywords) {
+            min = Math.min(min, keyword.keyword().length());
+            max = Math.max(max, keyword.keyword().length());
+        }
+        MIN_LENGTH = min;
+        MAX_LENGTH = max;
+        LAYOUT = findLayout(keywords);
+    }
+
+    private record Layout(@Nullable KeywordType[] table, int firstFactor, int lastFactor) {
+    }
+
+    private KeywordTable() {
+
+    }
+
+    private static Layout findLayout(KeywordType[] keywords) {
+        checkSeparable(keywords);
+        for (int size = Integer.highestOneBit(keywords.length) * 2; size <= MAX_TABLE_SIZE; size *= 2) {
+            for (int first = 1; first < size; first++) {
+                for (int last = 0; last < size; last++) {
+                    @Nullable KeywordType[] table = tryBuild(keywords, size, first, last);
+                    if (table != null) {
+                        return new Layout(table, first, last);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("no perfect hash with at most " + MAX_TABLE_SIZE + " slots for the keywords");
+    }
+
+    // keywords that agree in everything the hash looks at collide for all factors and table sizes
+    private static void checkSeparable(KeywordType[] keywords) {
+        for (int i = 0; i < keywords.length; i++) {
+            String a = keywords[i].keyword();
+            for (int j = i + 1; j < keywords.length; j++) {
+                String b = keywords[j].keyword();
+                if (a.length() == b.length() && a.charAt(0) == b.charAt(0)
+                    && a.charAt(a.length() - 1) == b.charAt(b.length() - 1)) {
+                    throw new IllegalStateException("keywords " + a + " and " + b
+                        + " have the same first char, last char and length, the hash cannot separate them");
+                }
+            }
+        }
+    }
+
+    private static @Nullable KeywordType @Nullable [] tryBuild(KeywordType[] keywords, int size, int first, int last) {
+        @Nullable KeywordType[] table = new KeywordType[size];
+        for (KeywordType keyword : keywords) {
+            String word = keyword.keyword();
+            int slot = hash(word.charAt(0), word.charAt(word.length() - 1), word.length(), first, last, size);
+            if (table[slot] != null) {
+                return null;
+            }
+            table[slot] = keyword;
+        }
+        return table;
+    }
+
+    private static int hash(char firstChar, char lastChar, int length, int first, int last, int size) {
+        return (firstChar * first + lastChar * last + length) & (size - 1);
+    }
+
+    /// {@return the keyword spelled by `source[start, start + length)`, or `null` if it is not a keyword}
+    static @Nullable KeywordType lookup(CharSequence source, int start, int length) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) {
+            return null;
+        }
+        @Nullable KeywordType[] table = LAYOUT.table();
+        int slot = hash(source.charAt(start), source.charAt(start + length - 1), length,
+            LAYOUT.firstFactor(), LAYOUT.lastFactor(), table.length);
+        KeywordType candidate = table[slot];
+        if (candidate == null) {
+            return null;
+        }
+        String word = candidate.keyword();
+        if (word.length() != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != source.charAt(start + i)) {
+                return null;
+            }
+        }
+        return candidate;
+    }
+}
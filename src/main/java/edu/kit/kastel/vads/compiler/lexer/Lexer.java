@@ -1,36 +1,380 @@
 package edu.kit.kastel.vads.compiler.lexer;
 
-import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.LineMap;
 import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import org.jspecify.annotations.Nullable;
 
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Lexer {
-    private final String source;
+    private static final int END_OF_INPUT = -1;
+
+    private final CharSequence source;
     private int pos;
-    private int lineStart;
-    private int line;
+    private final LineMap lines;
+    private final Symbols symbols;
+    // the chunks lexed in parallel, null if this lexer scans the tokens itself
+    private @Nullable ChunkStream chunks;
+    // location of the token most recently returned by scan()
+    private int tokenStart;
+    private int tokenLength;
+    // the symbol id if the token most recently returned by scan() is an identifier
+    private int tokenSymbol;
+
+    private Lexer(CharSequence source, Symbols symbols) {
+        this(source, symbols, new LineMap(), 0);
+    }
 
-    private Lexer(String source) {
+    private Lexer(CharSequence source, Symbols symbols, LineMap lines, int pos) {
         this.source = source;
+        this.symbols = symbols;
+        this.lines = lines;
+        this.pos = pos;
     }
 
     public static Lexer forString(String source) {
-        return new Lexer(source);
+        return new Lexer(source, new Symbols());
+    }
+
+    /// Creates a lexer that works directly on the UTF-8 encoded bytes of the given segment.
+    /// The segment must stay accessible until lexing is done.
+    public static Lexer forBytes(MemorySegment source) {
+        return forBytes(source, new Symbols());
+    }
+
+    /// Creates a lexer like [#forBytes(MemorySegment)] that interns identifiers into the given table.
+    public static Lexer forBytes(MemorySegment source, Symbols symbols) {
+        return new Lexer(new ByteSource(source), symbols);
+    }
+
+    /// {@return the table the identifiers lexed by this lexer are interned in}
+    public Symbols symbols() {
+        return this.symbols;
+    }
+
+    /// {@return the line starts of the input lexed so far}
+    /// The spans of all tokens created by this lexer resolve their positions against it.
+    public LineMap lineMap() {
+        return this.lines;
     }
 
     public Optional<Token> nextToken() {
-        ErrorToken error = skipWhitespace();
-        if (error != null) {
-            return Optional.of(error);
+        if (this.chunks != null) {
+            throw new IllegalStateException("tokens lexed in parallel are only available through lexNext");
         }
-        if (this.pos >= this.source.length()) {
+        int kind = scan();
+        if (kind == END_OF_INPUT) {
             return Optional.empty();
         }
-        Token t = switch (peek()) {
+        Span span = TokenKind.span(this.lines, kind, this.tokenStart, this.tokenLength);
+        if (kind == TokenKind.IDENTIFIER) {
+            return Optional.of(TokenKind.materialize(kind, this.symbols.name(this.tokenSymbol), this.tokenSymbol, span));
+        }
+        String text = text(this.tokenStart, this.tokenStart + this.tokenLength);
+        return Optional.of(TokenKind.materialize(kind, text, -1, span));
+    }
+
+    /// Lexes all remaining tokens into a [TokenBuffer], without creating any [Token] records.
+    public TokenBuffer tokenize() {
+        TokenBuffer buffer = new TokenBuffer(this.source, this.lines, this.symbols);
+        while (lexNext(buffer)) {
+            // lexNext adds the token to the buffer
+        }
+        return buffer;
+    }
+
+    /// Lexes the whole source like [#tokenize()], but splits it into chunks of about `chunkSize` chars
+    /// that are lexed in parallel, see [#lexInParallel(int)].
+    ///
+    /// For byte sources, the underlying segment must be accessible from other threads.
+    public TokenBuffer tokenizeParallel(int chunkSize) {
+        lexInParallel(chunkSize);
+        return tokenize();
+    }
+
+    /// Makes [#lexNext(TokenBuffer)] return the tokens of chunks of about `chunkSize` chars
+    /// that are lexed in parallel on the common fork-join pool.
+    ///
+    /// Chunks start at line starts, where no token can be in progress. Each chunk is lexed
+    /// speculating that it does not start within a multi-line comment. The chunks are then stitched
+    /// together in order: the first token the previous chunk lexed past its end tells where the next chunk
+    /// really continues. If the next chunk lexed a token starting there, its tokens from there on are correct;
+    /// otherwise the speculation was wrong and the chunk is lexed again from that token on.
+    /// Identifiers are interned while stitching, so symbol ids match those of sequential lexing.
+    ///
+    /// Only a few chunks ahead of the one being stitched are lexed at a time, so like sequential lexing into
+    /// a [ring buffer][#ringBuffer(int)], memory usage does not grow with the input size.
+    /// For byte sources, the underlying segment must be accessible from other threads.
+    public void lexInParallel(int chunkSize) {
+        if (this.pos != 0 || this.chunks != null) {
+            throw new IllegalStateException("the source was already partially lexed");
+        }
+        this.chunks = new ChunkStream(chunkBounds(chunkSize));
+    }
+
+    /// Stitches the tokens of the chunks lexed in parallel, see [#lexInParallel(int)].
+    private final class ChunkStream {
+        // the number of chunks that are lexed ahead of the current one, enough to keep all workers busy
+        private static final int WINDOW = Math.max(2, ForkJoinPool.getCommonPoolParallelism() + 1);
+
+        private final List<Integer> bounds;
+        // the tasks of the chunks that were forked by chunk index, null once joined
+        private final List<@Nullable ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+        private final int chunkCount;
+        private int current;
+        private Chunk chunk;
+        // the index of the next token of the current chunk
+        private int next;
+        // maps the symbol ids of the current chunk to the ones of this lexer, -1 if not interned yet
+        private int[] symbolIds;
+        private boolean done;
+
+        ChunkStream(List<Integer> bounds) {
+            this.bounds = bounds;
+            this.chunkCount = bounds.size() - 1;
+            this.chunk = join(0);
+            this.symbolIds = newSymbolIds();
+        }
+
+        boolean next(TokenBuffer buffer) {
+            while (!this.done) {
+                TokenBuffer tokens = this.chunk.tokens();
+                int overrun = this.chunk.overrun();
+                if (this.next < overrun) {
+                    addInterned(buffer, tokens, this.next++, this.symbolIds);
+                    return true;
+                }
+                if (overrun == tokens.size()) {
+                    finish();
+                    return false;
+                }
+                if (tokens.kind(overrun) == TokenKind.UNTERMINATED_COMMENT) {
+                    // the comment swallows the rest of the input, so later chunks are irrelevant
+                    addInterned(buffer, tokens, overrun, this.symbolIds);
+                    finish();
+                    return true;
+                }
+                int offset = tokens.start(overrun);
+                do {
+                    this.chunk = join(++this.current);
+                } while (this.chunk.end() <= offset);
+                this.next = this.chunk.indexOf(offset);
+                if (this.next < 0) {
+                    this.chunk = lexChunk(offset, this.chunk.end());
+                    this.next = 0;
+                }
+                this.symbolIds = newSymbolIds();
+            }
+            return false;
+        }
+
+        // waits for the chunk, whose line starts are added in order, and forks the ones after it
+        private Chunk join(int index) {
+            while (this.tasks.size() < this.chunkCount && this.tasks.size() < index + WINDOW) {
+                int forked = this.tasks.size();
+                int start = this.bounds.get(forked);
+                int end = this.bounds.get(forked + 1);
+                this.tasks.add(ForkJoinTask.adapt(() -> lexChunk(start, end)).fork());
+            }
+            Chunk result = Objects.requireNonNull(this.tasks.get(index)).join();
+            this.tasks.set(index, null);
+            // line starts only depend on the line breaks, so every chunk finds the right ones
+            Lexer.this.lines.addShifted(result.lines(), result.start(), result.end(), 0);
+            return result;
+        }
+
+        // the remaining chunks hold no more tokens, but their line starts are still needed
+        private void finish() {
+            while (this.current < this.chunkCount - 1) {
+                join(++this.current);
+            }
+            this.done = true;
+            Lexer.this.pos = Lexer.this.source.length();
+        }
+
+        private int[] newSymbolIds() {
+            int[] ids = new int[this.chunk.tokens().symbols().size()];
+            Arrays.fill(ids, -1);
+            return ids;
+        }
+    }
+
+    /// The tokens of `[start, end)`, followed by the first token starting at or after `end`, if any.
+    private record Chunk(int start, int end, TokenBuffer tokens, LineMap lines) {
+        /// {@return the index of the first token that starts at or after the end of this chunk}
+        /// This is the size of the buffer if the input ended within this chunk.
+        int overrun() {
+            int last = this.tokens.size() - 1;
+            if (last >= 0 && (this.tokens.start(last) >= this.end || this.tokens.kind(last) == TokenKind.UNTERMINATED_COMMENT)) {
+                return last;
+            }
+            return this.tokens.size();
+        }
+
+        /// {@return the index of the token starting at the given offset, or `-1` if there is none}
+        int indexOf(int offset) {
+            int low = 0;
+            int high = overrun() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int start = this.tokens.start(mid);
+                if (start < offset) {
+                    low = mid + 1;
+                } else if (start > offset) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /// {@return the chunk boundaries, starting with `0` and ending with the source length}
+    /// Boundaries are moved to the start of the next line, so they never split a token.
+    private List<Integer> chunkBounds(int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int length = this.source.length();
+        int target = chunkSize;
+        while (target < length) {
+            int lineBreak = indexOfLineBreak(target);
+            if (lineBreak + 1 >= length) {
+                break;
+            }
+            bounds.add(lineBreak + 1);
+            target = lineBreak + 1 + chunkSize;
+        }
+        bounds.add(length);
+        return bounds;
+    }
+
+    /// Lexes from the given offset, assuming it is not within a comment, until the first token
+    /// at or after `end` was lexed. Each chunk interns into its own table, as tables are not thread-safe.
+    private Chunk lexChunk(int start, int end) {
+        Lexer lexer = new Lexer(this.source, new Symbols(), new LineMap(), start);
+        TokenBuffer tokens = new TokenBuffer(this.source, lexer.lines, lexer.symbols);
+        int kind;
+        while ((kind = lexer.scan()) != END_OF_INPUT) {
+            lexer.addToken(tokens, kind);
+            if (lexer.tokenStart >= end) {
+                break;
+            }
+        }
+        return new Chunk(start, end, tokens, lexer.lines);
+    }
+
+    private void addInterned(TokenBuffer buffer, TokenBuffer tokens, int index, int[] symbolIds) {
+        int symbol = tokens.symbol(index);
+        if (symbol >= 0) {
+            if (symbolIds[symbol] < 0) {
+                symbolIds[symbol] = this.symbols.intern(tokens.symbols().name(symbol));
+            }
+            symbol = symbolIds[symbol];
+        }
+        buffer.add(tokens.kind(index), tokens.start(index), tokens.length(index), symbol);
+    }
+
+    /// Lexes the source of `previous` with the given edit applied, reusing the tokens the edit does not affect.
+    /// Lexing restarts at the end of the last token before the edit, where no comment can be open,
+    /// and stops as soon as a token starts at the same place as a token after the edit did before.
+    /// From there on, the previous tokens are only shifted.
+    /// The previous buffer must hold all tokens of a source created by [#forString(String)].
+    /// @return a buffer over the edited source
+    public static TokenBuffer relex(TokenBuffer previous, TextEdit edit) {
+        if (!(previous.source() instanceof String oldSource)) {
+            throw new IllegalArgumentException("only buffers lexed from strings can be relexed");
+        }
+        String source = edit.apply(oldSource);
+        int kept = tokensBefore(previous, edit.offset());
+        int restart = kept == 0 ? 0 : previous.start(kept - 1) + previous.length(kept - 1);
+        Lexer lexer = new Lexer(source, previous.symbols(), previous.lineMap().prefix(restart), restart);
+        TokenBuffer buffer = previous.prefix(kept, source, lexer.lines);
+
+        int editEnd = edit.offset() + edit.inserted().length();
+        int delta = edit.delta();
+        int old = kept;
+        int kind;
+        while ((kind = lexer.scan()) != END_OF_INPUT) {
+            // an unterminated comment is only reported after scanning to the end, so there is nothing left to reuse
+            if (lexer.tokenStart >= editEnd && kind != TokenKind.UNTERMINATED_COMMENT) {
+                // the text from here on is unchanged, so lexing it again leads to the same tokens
+                int oldStart = lexer.tokenStart - delta;
+                while (old < previous.size() && previous.start(old) < oldStart) {
+                    old++;
+                }
+                if (old < previous.size() && previous.start(old) == oldStart
+                    && previous.kind(old) == kind && previous.length(old) == lexer.tokenLength) {
+                    lexer.lines.addShifted(previous.lineMap(), oldStart, delta);
+                    buffer.addShifted(previous, old, delta);
+                    return buffer;
+                }
+            }
+            lexer.addToken(buffer, kind);
+        }
+        return buffer;
+    }
+
+    /// {@return the number of leading tokens that are not affected by a change at the given offset}
+    /// Lexing a token looks at one char past its end, so that char must be before the offset as well.
+    private static int tokensBefore(TokenBuffer tokens, int offset) {
+        // token ends are increasing, so search for the first token that ends at or after the offset
+        int low = 0;
+        int high = tokens.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens.start(mid) + tokens.length(mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /// Creates an empty buffer over this lexer's source that only retains the last `capacity` tokens.
+    /// It can be filled token by token using [#lexNext(TokenBuffer)].
+    public TokenBuffer ringBuffer(int capacity) {
+        return TokenBuffer.ring(this.source, this.lines, this.symbols, capacity);
+    }
+
+    /// Lexes the next token into the given buffer.
+    /// @return `false` if there are no more tokens
+    public boolean lexNext(TokenBuffer buffer) {
+        if (this.chunks != null) {
+            return this.chunks.next(buffer);
+        }
+        int kind = scan();
+        if (kind == END_OF_INPUT) {
+            return false;
+        }
+        addToken(buffer, kind);
+        return true;
+    }
+
+    private void addToken(TokenBuffer buffer, int kind) {
+        buffer.add(kind, this.tokenStart, this.tokenLength, kind == TokenKind.IDENTIFIER ? this.tokenSymbol : -1);
+    }
+
+    /// Scans the next token and stores its location in the `token*` fields.
+    /// @return the [TokenKind] of the token, or [#END_OF_INPUT]
+    private int scan() {
+        if (skipWhitespace()) {
+            return TokenKind.UNTERMINATED_COMMENT;
+        }
+        if (this.pos >= this.source.length()) {
+            return END_OF_INPUT;
+        }
+        return switch (peek()) {
             case '(' -> separator(SeparatorType.PAREN_OPEN);
             case ')' -> separator(SeparatorType.PAREN_CLOSE);
             case '{' -> separator(SeparatorType.BRACE_OPEN);
@@ -41,7 +385,7 @@ public class Lexer {
             case '*' -> singleOrAssign(OperatorType.MUL, OperatorType.ASSIGN_MUL);
             case '/' -> singleOrAssign(OperatorType.DIV, OperatorType.ASSIGN_DIV);
             case '%' -> singleOrAssign(OperatorType.MOD, OperatorType.ASSIGN_MOD);
-            case '=' -> new Operator(OperatorType.ASSIGN, buildSpan(1));
+            case '=' -> token(TokenKind.operator(OperatorType.ASSIGN), 1);
             default -> {
                 if (isIdentifierChar(peek())) {
                     if (isNumeric(peek())) {
@@ -49,14 +393,14 @@ public class Lexer {
                     }
                     yield lexIdentifierOrKeyword();
                 }
-                yield new ErrorToken(String.valueOf(peek()), buildSpan(1));
+                yield token(TokenKind.ERROR, characterLength());
             }
         };
-
-        return Optional.of(t);
     }
 
-    private @Nullable ErrorToken skipWhitespace() {
+    /// Skips whitespace and comments.
+    /// @return `true` if the input ends within a multi-line comment, which is then stored as the current token
+    private boolean skipWhitespace() {
         enum CommentType {
             SINGLE_LINE,
             MULTI_LINE
@@ -66,18 +410,17 @@ public class Lexer {
         int commentStart = -1;
         while (hasMore(0)) {
             switch (peek()) {
-                case ' ', '\t' -> this.pos++;
+                case ' ', '\t' -> this.pos = indexOfNone(this.pos + 1, ' ', '\t');
                 case '\n', '\r' -> {
                     this.pos++;
-                    this.lineStart = this.pos;
-                    this.line++;
+                    this.lines.addLineStart(this.pos);
                     if (currentCommentType == CommentType.SINGLE_LINE) {
                         currentCommentType = null;
                     }
                 }
                 case '/' -> {
                     if (currentCommentType == CommentType.SINGLE_LINE) {
-                        this.pos++;
+                        this.pos = indexOfLineBreak(this.pos + 1);
                         continue;
                     }
                     if (hasMore(1)) {
@@ -87,10 +430,10 @@ public class Lexer {
                             currentCommentType = CommentType.MULTI_LINE;
                             multiLineCommentDepth++;
                         } else if (currentCommentType == CommentType.MULTI_LINE) {
-                            this.pos++;
+                            this.pos = indexOfCommentDelimiter(this.pos + 1);
                             continue;
                         } else {
-                            return null;
+                            return false;
                         }
                         commentStart = this.pos;
                         this.pos += 2;
@@ -101,7 +444,7 @@ public class Lexer {
                         this.pos++;
                         continue;
                     }
-                    return null;
+                    return false;
                 }
                 default -> {
                     if (currentCommentType == CommentType.MULTI_LINE) {
@@ -110,43 +453,82 @@ public class Lexer {
                             multiLineCommentDepth--;
                             currentCommentType = multiLineCommentDepth == 0 ? null : CommentType.MULTI_LINE;
                         } else {
-                            this.pos++;
+                            this.pos = indexOfCommentDelimiter(this.pos + 1);
                         }
                         continue;
                     } else if (currentCommentType == CommentType.SINGLE_LINE) {
-                        this.pos++;
+                        this.pos = indexOfLineBreak(this.pos + 1);
                         continue;
                     }
-                    return null;
+                    return false;
                 }
             }
         }
         if (!hasMore(0) && currentCommentType == CommentType.MULTI_LINE) {
-            return new ErrorToken(this.source.substring(commentStart), buildSpan(0));
+            this.tokenStart = commentStart;
+            this.tokenLength = this.pos - commentStart;
+            return true;
         }
-        return null;
+        return false;
+    }
+
+    /// {@return the index of the next line break at or after `from`}
+    private int indexOfLineBreak(int from) {
+        return indexOfAny(from, '\n', '\r', '\n', '\r');
+    }
+
+    /// {@return the index of the next char at or after `from` that can change the state within a multi-line comment}
+    private int indexOfCommentDelimiter(int from) {
+        return indexOfAny(from, '\n', '\r', '/', '*');
     }
 
-    private Separator separator(SeparatorType parenOpen) {
-        return new Separator(parenOpen, buildSpan(1));
+    // the following two methods skip whole words on byte sources,
+    // the char-wise loops are the reference implementation used for strings
+
+    private int indexOfAny(int from, char a, char b, char c, char d) {
+        if (this.source instanceof ByteSource bytes) {
+            return bytes.indexOfAny(from, a, b, c, d);
+        }
+        int index = from;
+        while (index < this.source.length()) {
+            char current = this.source.charAt(index);
+            if (current == a || current == b || current == c || current == d) {
+                break;
+            }
+            index++;
+        }
+        return index;
     }
 
-    private Token lexIdentifierOrKeyword() {
+    private int indexOfNone(int from, char a, char b) {
+        if (this.source instanceof ByteSource bytes) {
+            return bytes.indexOfNone(from, a, b);
+        }
+        int index = from;
+        while (index < this.source.length() && (this.source.charAt(index) == a || this.source.charAt(index) == b)) {
+            index++;
+        }
+        return index;
+    }
+
+    private int separator(SeparatorType type) {
+        return token(TokenKind.separator(type), 1);
+    }
+
+    private int lexIdentifierOrKeyword() {
         int off = 1;
         while (hasMore(off) && isIdentifierChar(peek(off))) {
             off++;
         }
-        String id = this.source.substring(this.pos, this.pos + off);
-        // This is a naive solution. Using a better data structure (hashmap, trie) likely performs better.
-        for (KeywordType value : KeywordType.values()) {
-            if (value.keyword().equals(id)) {
-                return new Keyword(value, buildSpan(off));
-            }
+        KeywordType keyword = KeywordTable.lookup(this.source, this.pos, off);
+        if (keyword != null) {
+            return token(TokenKind.keyword(keyword), off);
         }
-        return new Identifier(id, buildSpan(off));
+        this.tokenSymbol = this.symbols.intern(this.source, this.pos, off);
+        return token(TokenKind.IDENTIFIER, off);
     }
 
-    private Token lexNumber() {
+    private int lexNumber() {
         if (isHexPrefix()) {
             int off = 2;
             while (hasMore(off) && isHex(peek(off))) {
@@ -154,9 +536,9 @@ public class Lexer {
             }
             if (off == 2) {
                 // 0x without any further hex digits
-                return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(2));
+                return token(TokenKind.ERROR, 2);
             }
-            return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 16, buildSpan(off));
+            return token(TokenKind.HEX_LITERAL, off);
         }
         int off = 1;
         while (hasMore(off) && isNumeric(peek(off))) {
@@ -164,9 +546,24 @@ public class Lexer {
         }
         if (peek() == '0' && off > 1) {
             // leading zero is not allowed
-            return new ErrorToken(this.source.substring(this.pos, this.pos + off), buildSpan(off));
+            return token(TokenKind.ERROR, off);
         }
-        return new NumberLiteral(this.source.substring(this.pos, this.pos + off), 10, buildSpan(off));
+        return token(TokenKind.DECIMAL_LITERAL, off);
+    }
+
+    /// {@return the number of chars that make up the (possibly non-ASCII) character at the current position}
+    private int characterLength() {
+        if (this.source instanceof ByteSource bytes) {
+            return bytes.sequenceLength(this.pos);
+        }
+        if (Character.isHighSurrogate(peek()) && hasMore(1) && Character.isLowSurrogate(peek(1))) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private String text(int start, int end) {
+        return this.source.subSequence(start, end).toString();
     }
 
     private boolean isHexPrefix() {
@@ -174,33 +571,31 @@ public class Lexer {
     }
 
     private boolean isIdentifierChar(char c) {
-        return c == '_'
-            || c >= 'a' && c <= 'z'
-            || c >= 'A' && c <= 'Z'
-            || c >= '0' && c <= '9';
+        return CharClass.is(c, CharClass.IDENTIFIER);
     }
 
     private boolean isNumeric(char c) {
-        return c >= '0' && c <= '9';
+        return CharClass.is(c, CharClass.DIGIT);
     }
 
     private boolean isHex(char c) {
-        return isNumeric(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+        return CharClass.is(c, CharClass.HEX_DIGIT);
     }
 
-    private Token singleOrAssign(OperatorType single, OperatorType assign) {
+    private int singleOrAssign(OperatorType single, OperatorType assign) {
         if (hasMore(1) && peek(1) == '=') {
-            return new Operator(assign, buildSpan(2));
+            return token(TokenKind.operator(assign), 2);
         }
-        return new Operator(single, buildSpan(1));
+        return token(TokenKind.operator(single), 1);
     }
 
-    private Span buildSpan(int proceed) {
-        int start = this.pos;
-        this.pos += proceed;
-        Position.SimplePosition s = new Position.SimplePosition(this.line, start - this.lineStart);
-        Position.SimplePosition e = new Position.SimplePosition(this.line, start - this.lineStart + proceed);
-        return new Span.SimpleSpan(s, e);
+    /// Makes the next `length` chars the current token and moves past them.
+    /// @return the given kind
+    private int token(int kind, int length) {
+        this.tokenStart = this.pos;
+        this.tokenLength = length;
+        this.pos += length;
+        return kind;
     }
 
     private char peek() {
@@ -0,0 +1,99 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.util.Arrays;
+
+/// Interns identifiers and assigns each distinct one a dense `int` id, starting at 0.
+/// Identifiers are looked up directly in the source, so no substring is created
+/// for identifiers that were already seen before.
+///
+/// Ids are only meaningful relative to the table that created them,
+/// so a single table is shared by everything lexed for one compilation.
+public final class Symbols {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    // open addressing table of id + 1, 0 marks a free slot
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /// {@return the id of the identifier spelled by `source[start, start + length)`}
+    /// The identifier is added to this table if it was not seen before.
+    public int intern(CharSequence source, int start, int length) {
+        int hash = hash(source, start, length);
+        int mask = this.table.length - 1;
+        int slot = hash & mask;
+        while (this.table[slot] != 0) {
+            int id = this.table[slot] - 1;
+            if (this.hashes[id] == hash && matches(this.names[id], source, start, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = add(source.subSequence(start, start + length).toString(), hash);
+        this.table[slot] = id + 1;
+        if (this.size * 2 > this.table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    /// {@return the id of the given identifier}
+    public int intern(String identifier) {
+        return intern(identifier, 0, identifier.length());
+    }
+
+    /// {@return the identifier with the given id}
+    public String name(int id) {
+        return this.names[id];
+    }
+
+    /// {@return the number of distinct identifiers, all ids are below this value}
+    public int size() {
+        return this.size;
+    }
+
+    private int add(String name, int hash) {
+        if (this.size == this.names.length) {
+            this.names = Arrays.copyOf(this.names, this.size * 2);
+            this.hashes = Arrays.copyOf(this.hashes, this.size * 2);
+        }
+        this.names[this.size] = name;
+        this.hashes[this.size] = hash;
+        return this.size++;
+    }
+
+    private void rehash() {
+        int[] table = new int[this.table.length * 2];
+        int mask = table.length - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = this.hashes[id] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        this.table = table;
+    }
+
+    private static int hash(CharSequence source, int start, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + source.charAt(start + i);
+        }
+        // spread the higher bits, as only the lower ones select the slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String name, CharSequence source, int start, int length) {
+        if (name.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
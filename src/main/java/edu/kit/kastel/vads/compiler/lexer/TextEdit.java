@@ -0,0 +1,27 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import java.util.Objects;
+
+/// Replaces the `removed` chars starting at `offset` with the `inserted` text.
+public record TextEdit(int offset, int removed, String inserted) {
+    public TextEdit {
+        if (offset < 0 || removed < 0) {
+            throw new IllegalArgumentException("invalid edit at " + offset + " removing " + removed + " chars");
+        }
+    }
+
+    /// {@return the given text with this edit applied}
+    public String apply(CharSequence source) {
+        Objects.checkFromIndexSize(offset(), removed(), source.length());
+        return new StringBuilder(source.length() - removed() + inserted().length())
+            .append(source, 0, offset())
+            .append(inserted())
+            .append(source, offset() + removed(), source.length())
+            .toString();
+    }
+
+    /// {@return the number of chars the text grows by}
+    public int delta() {
+        return inserted().length() - removed();
+    }
+}
@@ -0,0 +1,160 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.Span;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/// A compact, growable sequence of tokens stored as parallel `int` arrays.
+/// Each token is described by its [TokenKind], its start offset and length in the source,
+/// and for identifiers the id they are interned with in [Symbols].
+/// Lines and columns are only computed on demand through the [LineMap] of the source.
+/// [Token] records are only created when explicitly requested via [#token(int)].
+///
+/// A buffer can also be a fixed-size ring, see [#ring(CharSequence, LineMap, Symbols, int)].
+/// Tokens are always addressed by their absolute index in the token stream.
+public final class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final CharSequence source;
+    private final LineMap lines;
+    private final Symbols symbols;
+    // -1 for growable buffers, capacity - 1 for rings
+    private final int mask;
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] symbolIds;
+    private int size;
+
+    TokenBuffer(CharSequence source, LineMap lines, Symbols symbols) {
+        this(source, lines, symbols, INITIAL_CAPACITY, -1);
+    }
+
+    private TokenBuffer(CharSequence source, LineMap lines, Symbols symbols, int capacity, int mask) {
+        this.source = source;
+        this.lines = lines;
+        this.symbols = symbols;
+        this.mask = mask;
+        this.kinds = new int[capacity];
+        this.starts = new int[capacity];
+        this.lengths = new int[capacity];
+        this.symbolIds = new int[capacity];
+    }
+
+    /// Creates a buffer that only retains the most recently added tokens.
+    /// Once more than `capacity` tokens were added, the oldest ones are discarded.
+    static TokenBuffer ring(CharSequence source, LineMap lines, Symbols symbols, int capacity) {
+        // round up to a power of two, so slots can be computed by masking
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        return new TokenBuffer(source, lines, symbols, size, size - 1);
+    }
+
+    /// @param symbol the symbol id of an identifier, `-1` for all other tokens
+    void add(int kind, int start, int length, int symbol) {
+        int slot = this.size & this.mask;
+        if (this.mask == -1 && this.size == this.kinds.length) {
+            int capacity = this.size * 2;
+            this.kinds = Arrays.copyOf(this.kinds, capacity);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+            this.symbolIds = Arrays.copyOf(this.symbolIds, capacity);
+        }
+        this.kinds[slot] = kind;
+        this.starts[slot] = start;
+        this.lengths[slot] = length;
+        this.symbolIds[slot] = symbol;
+        this.size++;
+    }
+
+    /// Creates a growable buffer over a new source that starts with the first `count` tokens of this one.
+    TokenBuffer prefix(int count, CharSequence source, LineMap lines) {
+        if (this.mask != -1) {
+            throw new IllegalStateException("ring buffers do not retain all tokens");
+        }
+        Objects.checkIndex(count, this.size + 1);
+        int capacity = Math.max(INITIAL_CAPACITY, this.kinds.length);
+        TokenBuffer copy = new TokenBuffer(source, lines, this.symbols, capacity, -1);
+        System.arraycopy(this.kinds, 0, copy.kinds, 0, count);
+        System.arraycopy(this.starts, 0, copy.starts, 0, count);
+        System.arraycopy(this.lengths, 0, copy.lengths, 0, count);
+        System.arraycopy(this.symbolIds, 0, copy.symbolIds, 0, count);
+        copy.size = count;
+        return copy;
+    }
+
+    /// Adds the tokens of `other` from the given index on, with their start offsets shifted by `delta`.
+    void addShifted(TokenBuffer other, int from, int delta) {
+        for (int i = from; i < other.size; i++) {
+            int slot = other.slot(i);
+            add(other.kinds[slot], other.starts[slot] + delta, other.lengths[slot], other.symbolIds[slot]);
+        }
+    }
+
+    CharSequence source() {
+        return this.source;
+    }
+
+    LineMap lineMap() {
+        return this.lines;
+    }
+
+    Symbols symbols() {
+        return this.symbols;
+    }
+
+    /// {@return the number of tokens added so far, including discarded ones}
+    public int size() {
+        return this.size;
+    }
+
+    /// {@return the [TokenKind] of the token at the given index}
+    public int kind(int index) {
+        return this.kinds[slot(index)];
+    }
+
+    /// {@return the offset in the source the token at the given index starts at}
+    public int start(int index) {
+        return this.starts[slot(index)];
+    }
+
+    /// {@return the number of source chars the token at the given index covers}
+    public int length(int index) {
+        return this.lengths[slot(index)];
+    }
+
+    /// {@return the id of the identifier at the given index in [Symbols], `-1` for all other tokens}
+    public int symbol(int index) {
+        return this.symbolIds[slot(index)];
+    }
+
+    /// {@return the source text of the token at the given index}
+    public String text(int index) {
+        int slot = slot(index);
+        if (this.symbolIds[slot] >= 0) {
+            return this.symbols.name(this.symbolIds[slot]);
+        }
+        int start = this.starts[slot];
+        return this.source.subSequence(start, start + this.lengths[slot]).toString();
+    }
+
+    public Span span(int index) {
+        int slot = slot(index);
+        return TokenKind.span(this.lines, this.kinds[slot], this.starts[slot], this.lengths[slot]);
+    }
+
+    /// Creates the [Token] record for the token at the given index.
+    /// This is meant for diagnostics, consumers should prefer the accessors of this class.
+    public Token token(int index) {
+        return TokenKind.materialize(kind(index), text(index), symbol(index), span(index));
+    }
+
+    private int slot(int index) {
+        Objects.checkIndex(index, this.size);
+        if (index < this.size - this.kinds.length) {
+            throw new IndexOutOfBoundsException("token " + index + " was already discarded");
+        }
+        return index & this.mask;
+    }
+}
@@ -0,0 +1,99 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
+import org.jspecify.annotations.Nullable;
+
+/// Encodes the kind of a token, including its keyword, operator or separator type, as a single int.
+/// This is the representation used by [TokenBuffer], the [Token] records are only created on demand.
+public final class TokenKind {
+    public static final int IDENTIFIER = 0;
+    public static final int DECIMAL_LITERAL = 1;
+    public static final int HEX_LITERAL = 2;
+    public static final int ERROR = 3;
+    /// An error token for a multi-line comment that is not closed.
+    /// Its text is the comment, but its span is empty and located at the end of the input.
+    public static final int UNTERMINATED_COMMENT = 4;
+
+    private static final KeywordType[] KEYWORDS = KeywordType.values();
+    private static final OperatorType[] OPERATORS = OperatorType.values();
+    private static final SeparatorType[] SEPARATORS = SeparatorType.values();
+    private static final int KEYWORD_BASE = UNTERMINATED_COMMENT + 1;
+    private static final int OPERATOR_BASE = KEYWORD_BASE + KEYWORDS.length;
+    private static final int SEPARATOR_BASE = OPERATOR_BASE + OPERATORS.length;
+    private static final int END = SEPARATOR_BASE + SEPARATORS.length;
+
+    private TokenKind() {
+
+    }
+
+    public static int keyword(KeywordType type) {
+        return KEYWORD_BASE + type.ordinal();
+    }
+
+    public static int operator(OperatorType type) {
+        return OPERATOR_BASE + type.ordinal();
+    }
+
+    public static int separator(SeparatorType type) {
+        return SEPARATOR_BASE + type.ordinal();
+    }
+
+    public static boolean isNumberLiteral(int kind) {
+        return kind == DECIMAL_LITERAL || kind == HEX_LITERAL;
+    }
+
+    public static boolean isError(int kind) {
+        return kind == ERROR || kind == UNTERMINATED_COMMENT;
+    }
+
+    public static @Nullable KeywordType keywordType(int kind) {
+        return kind >= KEYWORD_BASE && kind < OPERATOR_BASE ? KEYWORDS[kind - KEYWORD_BASE] : null;
+    }
+
+    public static @Nullable OperatorType operatorType(int kind) {
+        return kind >= OPERATOR_BASE && kind < SEPARATOR_BASE ? OPERATORS[kind - OPERATOR_BASE] : null;
+    }
+
+    public static @Nullable SeparatorType separatorType(int kind) {
+        return kind >= SEPARATOR_BASE && kind < END ? SEPARATORS[kind - SEPARATOR_BASE] : null;
+    }
+
+    /// {@return the span of a token of the given kind that covers `length` source chars from `start` on}
+    static Span span(LineMap lines, int kind, int start, int length) {
+        int end = start + length;
+        if (kind == UNTERMINATED_COMMENT) {
+            return new Span.SourceSpan(lines, end, end);
+        }
+        return new Span.SourceSpan(lines, start, end);
+    }
+
+    /// Creates the [Token] record for a token of the given kind.
+    /// @param text the text the token covers in the source
+    /// @param symbol the symbol id of an identifier, ignored for all other kinds
+    static Token materialize(int kind, String text, int symbol, Span span) {
+        return switch (kind) {
+            case IDENTIFIER -> new Identifier(text, symbol, span);
+            case DECIMAL_LITERAL -> new NumberLiteral(text, 10, span);
+            case HEX_LITERAL -> new NumberLiteral(text, 16, span);
+            case ERROR, UNTERMINATED_COMMENT -> new ErrorToken(text, span);
+            default -> {
+                KeywordType keywordType = keywordType(kind);
+                if (keywordType != null) {
+                    yield new Keyword(keywordType, span);
+                }
+                OperatorType operatorType = operatorType(kind);
+                if (operatorType != null) {
+                    yield new Operator(operatorType, span);
+                }
+                SeparatorType separatorType = separatorType(kind);
+                if (separatorType != null) {
+                    yield new Separator(separatorType, span);
+                }
+                throw new IllegalArgumentException("unknown token kind " + kind);
+            }
+        };
+    }
+}
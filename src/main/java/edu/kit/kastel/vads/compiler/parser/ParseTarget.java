@@ -0,0 +1,51 @@
+package edu.kit.kastel.vads.compiler.parser;
+
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+
+/// Receives the constructs the [Parser] recognizes, bottom-up in source order.
+/// Each construct is identified by an `int` handle that is passed back when its parent is completed.
+/// Handles are only meaningful to the target that returned them.
+///
+/// Within a statement, the constructs arrive in postorder, so a target can evaluate them
+/// in the same order as a postorder traversal of the finished tree would.
+public interface ParseTarget {
+
+    int program(int[] functions, int count);
+
+    /// Called after the signature of a function is parsed, before its body.
+    default void startFunction(int returnType, int name) {
+    }
+
+    int function(int returnType, int name, int body);
+
+    /// Called before the statements of a block are parsed.
+    default void startBlock(Span open) {
+    }
+
+    int block(Span open, Span close, int[] statements, int count);
+
+    /// @param initializer the initializer, or [edu.kit.kastel.vads.compiler.parser.ast.FlatAst#NONE]
+    int declaration(int type, int name, int initializer);
+
+    int assignment(int lValue, Operator operator, int expression);
+
+    int returnStatement(Span keyword, int expression);
+
+    int binaryOperation(int lhs, int rhs, OperatorType type);
+
+    int negate(Span minus, int expression);
+
+    int literal(NumberLiteral literal);
+
+    int identExpression(int name);
+
+    int lValueIdent(int name);
+
+    int name(Identifier identifier);
+
+    int type(Span span);
+}
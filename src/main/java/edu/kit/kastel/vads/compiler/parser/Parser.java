@@ -1,82 +1,124 @@
 package edu.kit.kastel.vads.compiler.parser;
 
 import edu.kit.kastel.vads.compiler.lexer.Identifier;
-import edu.kit.kastel.vads.compiler.lexer.Keyword;
 import edu.kit.kastel.vads.compiler.lexer.KeywordType;
-import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
 import edu.kit.kastel.vads.compiler.lexer.Operator;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
-import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.Span;
-import edu.kit.kastel.vads.compiler.lexer.Token;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BinaryOperationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.BlockTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.ast.NegateTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
-import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
-import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
-import edu.kit.kastel.vads.compiler.parser.symbol.Name;
-import edu.kit.kastel.vads.compiler.parser.type.BasicType;
 
-import java.util.ArrayList;
-import java.util.List;
+import org.jspecify.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.Objects;
+
+/// Parses a program into a [FlatAst].
+/// The record AST is available as a view, see [#parseProgram()].
+///
+/// Instead of building an AST, the parser can also pass the program to any other [ParseTarget], see [#parse()].
 public class Parser {
+    private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+    /// The binding strength of each binary operator, indexed by [OperatorType#ordinal()].
+    /// Operators with precedence `0` are not binary operators.
+    private static final int[] BINARY_PRECEDENCE = new int[OPERATOR_TYPES.length];
+    // markers on the operator stack, binary operators are pushed as their ordinal
+    private static final int PARENTHESIS = -1;
+    private static final int NEGATE = -2;
+
+    static {
+        BINARY_PRECEDENCE[OperatorType.PLUS.ordinal()] = 1;
+        BINARY_PRECEDENCE[OperatorType.MINUS.ordinal()] = 1;
+        BINARY_PRECEDENCE[OperatorType.MUL.ordinal()] = 2;
+        BINARY_PRECEDENCE[OperatorType.DIV.ordinal()] = 2;
+        BINARY_PRECEDENCE[OperatorType.MOD.ordinal()] = 2;
+    }
+
     private final TokenSource tokenSource;
+    private final ParseTarget ast;
+    // the target if it builds a flat AST, null otherwise
+    private final FlatAst.@Nullable Builder builder;
+    // expression stacks, shared by all expressions of the program
+    private int[] operators = new int[16];
+    private @Nullable Span[] operatorSpans = new Span[16];
+    private int operatorCount;
+    private int[] operands = new int[16];
+    private int operandCount;
 
     public Parser(TokenSource tokenSource) {
+        this(tokenSource, new FlatAst.Builder());
+    }
+
+    private Parser(TokenSource tokenSource, FlatAst.Builder builder) {
         this.tokenSource = tokenSource;
+        this.ast = builder;
+        this.builder = builder;
+    }
+
+    /// Creates a parser that passes the program to the given target instead of building an AST.
+    public Parser(TokenSource tokenSource, ParseTarget target) {
+        this.tokenSource = tokenSource;
+        this.ast = target;
+        this.builder = null;
     }
 
     public ProgramTree parseProgram() {
-        ProgramTree programTree = new ProgramTree(List.of(parseFunction()));
+        return parseFlatProgram().toTree();
+    }
+
+    public FlatAst parseFlatProgram() {
+        if (this.builder == null) {
+            throw new IllegalStateException("parser does not build an AST");
+        }
+        return this.builder.build(parse());
+    }
+
+    /// Parses the whole program into the target of this parser.
+    /// @return the handle of the program
+    public int parse() {
+        int program = this.ast.program(new int[] {parseFunction()}, 1);
         if (this.tokenSource.hasMore()) {
             throw new ParseException("expected end of input but got " + this.tokenSource.peek());
         }
-        return programTree;
+        return program;
     }
 
-    private FunctionTree parseFunction() {
-        Keyword returnType = this.tokenSource.expectKeyword(KeywordType.INT);
+    private int parseFunction() {
+        Span returnType = this.tokenSource.expectKeyword(KeywordType.INT);
         Identifier identifier = this.tokenSource.expectIdentifier();
         if (!identifier.value().equals("main")) {
             throw new ParseException("expected main function but got " + identifier);
         }
         this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
         this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-        BlockTree body = parseBlock();
-        return new FunctionTree(
-                new TypeTree(BasicType.INT, returnType.span()),
-                name(identifier),
-                body);
-    }
-
-    private BlockTree parseBlock() {
-        Separator bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
-        List<StatementTree> statements = new ArrayList<>();
-        while (!(this.tokenSource.peek() instanceof Separator sep && sep.type() == SeparatorType.BRACE_CLOSE)) {
-            statements.add(parseStatement());
+        int type = this.ast.type(returnType);
+        int name = this.ast.name(identifier);
+        this.ast.startFunction(type, name);
+        int body = parseBlock();
+        return this.ast.function(type, name, body);
+    }
+
+    private int parseBlock() {
+        Span bodyOpen = this.tokenSource.expectSeparator(SeparatorType.BRACE_OPEN);
+        this.ast.startBlock(bodyOpen);
+        int[] statements = new int[8];
+        int count = 0;
+        while (!this.tokenSource.peekIsSeparator(SeparatorType.BRACE_CLOSE)) {
+            if (count == statements.length) {
+                statements = Arrays.copyOf(statements, count * 2);
+            }
+            statements[count++] = parseStatement();
         }
-        Separator bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
-        return new BlockTree(statements, bodyOpen.span().merge(bodyClose.span()));
+        Span bodyClose = this.tokenSource.expectSeparator(SeparatorType.BRACE_CLOSE);
+        return this.ast.block(bodyOpen, bodyClose, statements, count);
     }
 
-    private StatementTree parseStatement() {
-        StatementTree statement;
-        if (this.tokenSource.peek().isKeyword(KeywordType.INT)) {
+    private int parseStatement() {
+        int statement;
+        if (this.tokenSource.peekIsKeyword(KeywordType.INT)) {
             statement = parseDeclaration();
-        } else if (this.tokenSource.peek().isKeyword(KeywordType.RETURN)) {
+        } else if (this.tokenSource.peekIsKeyword(KeywordType.RETURN)) {
             statement = parseReturn();
         } else {
             statement = parseSimple();
@@ -85,105 +127,149 @@ public class Parser {
         return statement;
     }
 
-    private StatementTree parseDeclaration() {
-        Keyword type = this.tokenSource.expectKeyword(KeywordType.INT);
+    private int parseDeclaration() {
+        Span type = this.tokenSource.expectKeyword(KeywordType.INT);
         Identifier ident = this.tokenSource.expectIdentifier();
-        ExpressionTree expr = null;
-        if (this.tokenSource.peek().isOperator(OperatorType.ASSIGN)) {
+        int typeNode = this.ast.type(type);
+        int name = this.ast.name(ident);
+        int expr = FlatAst.NONE;
+        if (this.tokenSource.peekIsOperator(OperatorType.ASSIGN)) {
             this.tokenSource.expectOperator(OperatorType.ASSIGN);
             expr = parseExpression();
         }
-        return new DeclarationTree(new TypeTree(BasicType.INT, type.span()), name(ident), expr);
+        return this.ast.declaration(typeNode, name, expr);
     }
 
-    private StatementTree parseSimple() {
-        LValueTree lValue = parseLValue();
+    private int parseSimple() {
+        int lValue = parseLValue();
         Operator assignmentOperator = parseAssignmentOperator();
-        ExpressionTree expression = parseExpression();
-        return new AssignmentTree(lValue, assignmentOperator, expression);
+        int expression = parseExpression();
+        return this.ast.assignment(lValue, assignmentOperator, expression);
     }
 
     private Operator parseAssignmentOperator() {
-        if (this.tokenSource.peek() instanceof Operator op) {
-            return switch (op.type()) {
-                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS -> {
-                    this.tokenSource.consume();
-                    yield op;
-                }
-                default -> throw new ParseException("expected assignment but got " + op.type());
+        OperatorType type = this.tokenSource.peekOperator();
+        if (type != null) {
+            return switch (type) {
+                case ASSIGN, ASSIGN_DIV, ASSIGN_MINUS, ASSIGN_MOD, ASSIGN_MUL, ASSIGN_PLUS ->
+                    new Operator(type, this.tokenSource.consume());
+                default -> throw new ParseException("expected assignment but got " + type);
             };
         }
         throw new ParseException("expected assignment but got " + this.tokenSource.peek());
     }
 
-    private LValueTree parseLValue() {
-        if (this.tokenSource.peek().isSeparator(SeparatorType.PAREN_OPEN)) {
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_OPEN);
-            LValueTree inner = parseLValue();
-            this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-            return inner;
+    private int parseLValue() {
+        // parentheses around an lvalue are only counted, they do not show up in the AST
+        int parentheses = 0;
+        while (this.tokenSource.peekIsSeparator(SeparatorType.PAREN_OPEN)) {
+            this.tokenSource.consume();
+            parentheses++;
         }
         Identifier identifier = this.tokenSource.expectIdentifier();
-        return new LValueIdentTree(name(identifier));
+        for (int i = 0; i < parentheses; i++) {
+            this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
+        }
+        return this.ast.lValueIdent(this.ast.name(identifier));
     }
 
-    private StatementTree parseReturn() {
-        Keyword ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
-        ExpressionTree expression = parseExpression();
-        return new ReturnTree(expression, ret.span().start());
+    private int parseReturn() {
+        Span ret = this.tokenSource.expectKeyword(KeywordType.RETURN);
+        int expression = parseExpression();
+        return this.ast.returnStatement(ret, expression);
     }
 
-    private ExpressionTree parseExpression() {
-        ExpressionTree lhs = parseTerm();
+    /// Parses an expression by precedence climbing, see [#BINARY_PRECEDENCE].
+    /// Pending operators and operands are kept on explicit stacks, so neither nested
+    /// parentheses nor chains of unary minus use native stack.
+    private int parseExpression() {
+        int base = this.operatorCount;
+        int operandBase = this.operandCount;
+        int parentheses = 0;
         while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                    && (type == OperatorType.PLUS || type == OperatorType.MINUS)) {
+            // expect an operand, possibly preceded by prefix operators and opening parentheses
+            if (this.tokenSource.peekIsSeparator(SeparatorType.PAREN_OPEN)) {
                 this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseTerm(), type);
+                pushOperator(PARENTHESIS, null);
+                parentheses++;
+                continue;
+            } else if (this.tokenSource.peekIsOperator(OperatorType.MINUS)) {
+                pushOperator(NEGATE, this.tokenSource.consume());
+                continue;
+            } else if (this.tokenSource.peekIsIdentifier()) {
+                pushOperand(this.ast.identExpression(this.ast.name(this.tokenSource.expectIdentifier())));
+            } else if (this.tokenSource.peekIsNumberLiteral()) {
+                pushOperand(this.ast.literal(this.tokenSource.expectNumberLiteral()));
             } else {
-                return lhs;
+                throw new ParseException("invalid factor " + this.tokenSource.peek());
+            }
+            reduceNegations();
+
+            // expect a binary operator or the end of a parenthesized expression
+            while (true) {
+                OperatorType type = this.tokenSource.peekOperator();
+                int precedence = type == null ? 0 : BINARY_PRECEDENCE[type.ordinal()];
+                if (precedence > 0) {
+                    // all binary operators are left associative
+                    reduceBinaryOperations(base, precedence);
+                    this.tokenSource.consume();
+                    pushOperator(type.ordinal(), null);
+                    break;
+                }
+                if (parentheses == 0) {
+                    reduceBinaryOperations(base, 1);
+                    assert this.operatorCount == base && this.operandCount == operandBase + 1;
+                    return this.operands[--this.operandCount];
+                }
+                reduceBinaryOperations(base, 1);
+                this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
+                assert this.operators[this.operatorCount - 1] == PARENTHESIS;
+                this.operatorCount--;
+                parentheses--;
+                reduceNegations();
             }
         }
     }
 
-    private ExpressionTree parseTerm() {
-        ExpressionTree lhs = parseFactor();
-        while (true) {
-            if (this.tokenSource.peek() instanceof Operator(var type, _)
-                    && (type == OperatorType.MUL || type == OperatorType.DIV || type == OperatorType.MOD)) {
-                this.tokenSource.consume();
-                lhs = new BinaryOperationTree(lhs, parseFactor(), type);
-            } else {
-                return lhs;
-            }
+    private void pushOperator(int operator, @Nullable Span span) {
+        if (this.operatorCount == this.operators.length) {
+            this.operators = Arrays.copyOf(this.operators, this.operatorCount * 2);
+            this.operatorSpans = Arrays.copyOf(this.operatorSpans, this.operatorCount * 2);
         }
+        this.operators[this.operatorCount] = operator;
+        this.operatorSpans[this.operatorCount] = span;
+        this.operatorCount++;
     }
 
-    private ExpressionTree parseFactor() {
-        return switch (this.tokenSource.peek()) {
-            case Separator(var type, _) when type == SeparatorType.PAREN_OPEN -> {
-                this.tokenSource.consume();
-                ExpressionTree expression = parseExpression();
-                this.tokenSource.expectSeparator(SeparatorType.PAREN_CLOSE);
-                yield expression;
-            }
-            case Operator(var type, _) when type == OperatorType.MINUS -> {
-                Span span = this.tokenSource.consume().span();
-                yield new NegateTree(parseFactor(), span);
-            }
-            case Identifier ident -> {
-                this.tokenSource.consume();
-                yield new IdentExpressionTree(name(ident));
-            }
-            case NumberLiteral(String value, int base, Span span) -> {
-                this.tokenSource.consume();
-                yield new LiteralTree(value, base, span);
-            }
-            case Token t -> throw new ParseException("invalid factor " + t);
-        };
+    private void pushOperand(int node) {
+        if (this.operandCount == this.operands.length) {
+            this.operands = Arrays.copyOf(this.operands, this.operandCount * 2);
+        }
+        this.operands[this.operandCount++] = node;
     }
 
-    private static NameTree name(Identifier ident) {
-        return new NameTree(Name.forIdentifier(ident), ident.span());
+    /// Applies all unary minus operators directly preceding the operand on top of the stack.
+    private void reduceNegations() {
+        while (this.operatorCount > 0 && this.operators[this.operatorCount - 1] == NEGATE) {
+            this.operatorCount--;
+            Span minus = Objects.requireNonNull(this.operatorSpans[this.operatorCount]);
+            this.operatorSpans[this.operatorCount] = null;
+            this.operands[this.operandCount - 1] = this.ast.negate(minus, this.operands[this.operandCount - 1]);
+        }
+    }
+
+    /// Applies all binary operators on top of the stack that bind at least as strong as the given precedence.
+    /// Stops at opening parentheses and at the given stack base.
+    private void reduceBinaryOperations(int base, int precedence) {
+        while (this.operatorCount > base) {
+            int operator = this.operators[this.operatorCount - 1];
+            if (operator < 0 || BINARY_PRECEDENCE[operator] < precedence) {
+                return;
+            }
+            this.operatorCount--;
+            int rhs = this.operands[--this.operandCount];
+            int lhs = this.operands[this.operandCount - 1];
+            this.operands[this.operandCount - 1] = this.ast.binaryOperation(lhs, rhs, OPERATOR_TYPES[operator]);
+        }
     }
 }
@@ -16,6 +16,9 @@ import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
 import edu.kit.kastel.vads.compiler.parser.ast.StatementTree;
 import edu.kit.kastel.vads.compiler.parser.ast.TypeTree;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /// This is a utility class to help with debugging the parser.
@@ -37,79 +40,76 @@ public class Printer {
     }
 
     private void printRoot() {
-        printTree(this.ast);
+        // the work stack holds trees that still need to be expanded, text to print and layout steps
+        Deque<Object> work = new ArrayDeque<>();
+        work.push(this.ast);
+        while (!work.isEmpty()) {
+            switch (work.pop()) {
+                case Tree tree -> expand(tree, work);
+                case String str -> print(str);
+                case Layout layout -> layout(layout);
+                default -> throw new IllegalStateException();
+            }
+        }
     }
 
-    private void printTree(Tree tree) {
+    /// Schedules the parts of the given tree to be printed next.
+    private void expand(Tree tree, Deque<Object> work) {
         switch (tree) {
             case BlockTree(List<StatementTree> statements, _) -> {
-                print("{");
-                lineBreak();
-                this.indentDepth++;
-                for (StatementTree statement : statements) {
-                    printTree(statement);
-                }
-                this.indentDepth--;
-                print("}");
-            }
-            case FunctionTree(var returnType, var name, var body) -> {
-                printTree(returnType);
-                space();
-                printTree(name);
-                print("()");
-                space();
-                printTree(body);
+                List<Object> parts = new ArrayList<>();
+                parts.add("{");
+                parts.add(Layout.LINE_BREAK);
+                parts.add(Layout.INDENT);
+                parts.addAll(statements);
+                parts.add(Layout.DEDENT);
+                parts.add("}");
+                schedule(work, parts.toArray());
             }
+            case FunctionTree(var returnType, var name, var body) ->
+                schedule(work, returnType, Layout.SPACE, name, "()", Layout.SPACE, body);
             case NameTree(var name, _) -> print(name.asString());
             case ProgramTree(var topLevelTrees) -> {
+                List<Object> parts = new ArrayList<>();
                 for (FunctionTree function : topLevelTrees) {
-                    printTree(function);
-                    lineBreak();
+                    parts.add(function);
+                    parts.add(Layout.LINE_BREAK);
                 }
+                schedule(work, parts.toArray());
             }
             case TypeTree(var type, _) -> print(type.asString());
-            case BinaryOperationTree(var lhs, var rhs, var op) -> {
-                print("(");
-                printTree(lhs);
-                print(")");
-                space();
-                this.builder.append(op);
-                space();
-                print("(");
-                printTree(rhs);
-                print(")");
-            }
-            case LiteralTree(var value, _, _) -> this.builder.append(value);
-            case NegateTree(var expression, _) -> {
-                print("-(");
-                printTree(expression);
-                print(")");
-            }
-            case AssignmentTree(var lValue, var op, var expression) -> {
-                printTree(lValue);
-                space();
-                this.builder.append(op);
-                space();
-                printTree(expression);
-                semicolon();
-            }
+            case BinaryOperationTree(var lhs, var rhs, var op) ->
+                schedule(work, "(", lhs, ")", Layout.SPACE, op.toString(), Layout.SPACE, "(", rhs, ")");
+            case LiteralTree(var value, _, _, _) -> print(value);
+            case NegateTree(var expression, _) -> schedule(work, "-(", expression, ")");
+            case AssignmentTree(var lValue, var op, var expression) ->
+                schedule(work, lValue, Layout.SPACE, op.toString(), Layout.SPACE, expression, Layout.SEMICOLON);
             case DeclarationTree(var type, var name, var initializer) -> {
-                printTree(type);
-                space();
-                printTree(name);
                 if (initializer != null) {
-                    print(" = ");
-                    printTree(initializer);
+                    schedule(work, type, Layout.SPACE, name, " = ", initializer, Layout.SEMICOLON);
+                } else {
+                    schedule(work, type, Layout.SPACE, name, Layout.SEMICOLON);
                 }
-                semicolon();
-            }
-            case ReturnTree(var expr, _) -> {
-                print("return ");
-                printTree(expr);
-                semicolon();
             }
-            case LValueIdentTree(var name) -> printTree(name);
-            case IdentExpressionTree(var name) -> printTree(name);
+            case ReturnTree(var expr, _) -> schedule(work, "return ", expr, Layout.SEMICOLON);
+            case LValueIdentTree(var name) -> work.push(name);
+            case IdentExpressionTree(var name) -> work.push(name);
+        }
+    }
+
+    private static void schedule(Deque<Object> work, Object... parts) {
+        for (int i = parts.length - 1; i >= 0; i--) {
+            work.push(parts[i]);
+        }
+    }
+
+    private void layout(Layout layout) {
+        switch (layout) {
+            case LINE_BREAK -> lineBreak();
+            case SEMICOLON -> semicolon();
+            case SPACE -> space();
+            case INDENT -> this.indentDepth++;
+            case DEDENT -> this.indentDepth--;
         }
     }
 
@@ -135,4 +135,8 @@ public class Printer {
         this.builder.append(" ");
     }
 
+    private enum Layout {
+        LINE_BREAK, SEMICOLON, SPACE, INDENT, DEDENT
+    }
+
 }
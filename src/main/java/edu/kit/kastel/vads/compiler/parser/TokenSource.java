@@ -1,86 +1,147 @@
 package edu.kit.kastel.vads.compiler.parser;
 
+import edu.kit.kastel.vads.compiler.Span;
 import edu.kit.kastel.vads.compiler.lexer.Identifier;
-import edu.kit.kastel.vads.compiler.lexer.Keyword;
 import edu.kit.kastel.vads.compiler.lexer.KeywordType;
 import edu.kit.kastel.vads.compiler.lexer.Lexer;
-import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
 import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
-import edu.kit.kastel.vads.compiler.lexer.Separator;
 import edu.kit.kastel.vads.compiler.lexer.Separator.SeparatorType;
 import edu.kit.kastel.vads.compiler.lexer.Token;
+import edu.kit.kastel.vads.compiler.lexer.TokenBuffer;
+import edu.kit.kastel.vads.compiler.lexer.TokenKind;
+import org.jspecify.annotations.Nullable;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Stream;
-
+/// Provides the tokens of a [TokenBuffer] to the [Parser].
+/// Tokens are inspected by their [TokenKind], [Token] records are only created
+/// for identifiers and literals, which end up in the AST, and for error messages.
+///
+/// In streaming mode, see [#streaming(Lexer)], tokens are lexed lazily into a ring buffer
+/// that only holds as many tokens as the parser looks ahead.
 public class TokenSource {
-    private final List<Token> tokens;
+    /// The number of tokens the [Parser] inspects before consuming them.
+    private static final int LOOKAHEAD = 1;
+
+    private final TokenBuffer tokens;
+    // the lexer to pull more tokens from, null if the buffer already holds all tokens
+    private final @Nullable Lexer lexer;
     private int idx;
 
     public TokenSource(Lexer lexer) {
-        this.tokens = Stream.generate(lexer::nextToken)
-            .takeWhile(Optional::isPresent)
-            .map(Optional::orElseThrow)
-            .toList();
+        this(lexer.tokenize());
+    }
+
+    public TokenSource(TokenBuffer tokens) {
+        this(tokens, null);
     }
 
-    TokenSource(List<Token> tokens) {
-        this.tokens = List.copyOf(tokens);
+    private TokenSource(TokenBuffer tokens, @Nullable Lexer lexer) {
+        this.tokens = tokens;
+        this.lexer = lexer;
     }
 
+    /// Creates a token source that lexes tokens only when the parser needs them.
+    /// Memory usage is independent of the input size, but consumed tokens cannot be accessed anymore.
+    public static TokenSource streaming(Lexer lexer) {
+        return new TokenSource(lexer.ringBuffer(LOOKAHEAD), lexer);
+    }
+
+    /// {@return the next token}
+    /// This creates a new [Token] record and is meant for diagnostics.
     public Token peek() {
         expectHasMore();
-        return this.tokens.get(this.idx);
+        return this.tokens.token(this.idx);
+    }
+
+    public boolean peekIsKeyword(KeywordType type) {
+        return peekKind() == TokenKind.keyword(type);
+    }
+
+    public boolean peekIsOperator(OperatorType type) {
+        return peekKind() == TokenKind.operator(type);
+    }
+
+    public boolean peekIsSeparator(SeparatorType type) {
+        return peekKind() == TokenKind.separator(type);
+    }
+
+    public boolean peekIsIdentifier() {
+        return peekKind() == TokenKind.IDENTIFIER;
+    }
+
+    public boolean peekIsNumberLiteral() {
+        return TokenKind.isNumberLiteral(peekKind());
     }
 
-    public Keyword expectKeyword(KeywordType type) {
-        Token token = peek();
-        if (!(token instanceof Keyword kw) || kw.type() != type) {
-            throw new ParseException("expected keyword '" + type + "' but got " + token);
+    /// {@return the type of the next token if it is an operator, `null` otherwise}
+    public @Nullable OperatorType peekOperator() {
+        return TokenKind.operatorType(peekKind());
+    }
+
+    private int peekKind() {
+        expectHasMore();
+        return this.tokens.kind(this.idx);
+    }
+
+    public Span expectKeyword(KeywordType type) {
+        if (!peekIsKeyword(type)) {
+            throw new ParseException("expected keyword '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return kw;
+        return consume();
     }
 
-    public Separator expectSeparator(SeparatorType type) {
-        Token token = peek();
-        if (!(token instanceof Separator sep) || sep.type() != type) {
-            throw new ParseException("expected separator '" + type + "' but got " + token);
+    public Span expectSeparator(SeparatorType type) {
+        if (!peekIsSeparator(type)) {
+            throw new ParseException("expected separator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return sep;
+        return consume();
     }
 
-    public Operator expectOperator(OperatorType type) {
-        Token token = peek();
-        if (!(token instanceof Operator op) || op.type() != type) {
-            throw new ParseException("expected operator '" + type + "' but got " + token);
+    public Span expectOperator(OperatorType type) {
+        if (!peekIsOperator(type)) {
+            throw new ParseException("expected operator '" + type + "' but got " + peek());
         }
-        this.idx++;
-        return op;
+        return consume();
     }
+
     public Identifier expectIdentifier() {
-        Token token = peek();
-        if (!(token instanceof Identifier ident)) {
-            throw new ParseException("expected identifier but got " + token);
+        if (!peekIsIdentifier()) {
+            throw new ParseException("expected identifier but got " + peek());
         }
+        Identifier identifier = (Identifier) this.tokens.token(this.idx);
         this.idx++;
-        return ident;
+        return identifier;
     }
 
-    public Token consume() {
-        Token token = peek();
+    public NumberLiteral expectNumberLiteral() {
+        if (!peekIsNumberLiteral()) {
+            throw new ParseException("expected number literal but got " + peek());
+        }
+        NumberLiteral literal = (NumberLiteral) this.tokens.token(this.idx);
         this.idx++;
-        return token;
+        return literal;
+    }
+
+    /// Consumes the next token.
+    /// @return the span of the consumed token
+    public Span consume() {
+        expectHasMore();
+        Span span = this.tokens.span(this.idx);
+        this.idx++;
+        return span;
     }
 
     public boolean hasMore() {
-        return this.idx < this.tokens.size();
+        while (this.idx >= this.tokens.size()) {
+            if (this.lexer == null || !this.lexer.lexNext(this.tokens)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private void expectHasMore() {
-        if (this.idx >= this.tokens.size()) {
+        if (!hasMore()) {
             throw new ParseException("reached end of file");
         }
     }
@@ -0,0 +1,471 @@
+package edu.kit.kastel.vads.compiler.parser.ast;
+
+import edu.kit.kastel.vads.compiler.LineMap;
+import edu.kit.kastel.vads.compiler.Position;
+import edu.kit.kastel.vads.compiler.Span;
+import edu.kit.kastel.vads.compiler.lexer.Identifier;
+import edu.kit.kastel.vads.compiler.lexer.NumberLiteral;
+import edu.kit.kastel.vads.compiler.lexer.Operator;
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ParseTarget;
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import edu.kit.kastel.vads.compiler.parser.type.BasicType;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// An AST stored in parallel primitive arrays.
+/// Nodes are addressed by `int` handles and have one of the kinds below, which correspond to the [Tree] records.
+/// The children of a node are linked through [#firstChild(int)] and [#nextSibling(int)],
+/// in the same order as the components of the corresponding record.
+/// Spans are stored as offsets into the [LineMap] of the source.
+///
+/// The record AST can be created as a view via [#toTree()], e.g. for the [edu.kit.kastel.vads.compiler.parser.Printer].
+public final class FlatAst {
+    public static final int PROGRAM = 0;
+    public static final int FUNCTION = 1;
+    public static final int BLOCK = 2;
+    public static final int DECLARATION = 3;
+    public static final int ASSIGNMENT = 4;
+    public static final int RETURN = 5;
+    public static final int BINARY_OPERATION = 6;
+    public static final int NEGATE = 7;
+    public static final int LITERAL = 8;
+    public static final int IDENT_EXPRESSION = 9;
+    public static final int LVALUE_IDENT = 10;
+    public static final int NAME = 11;
+    public static final int TYPE = 12;
+    /// The number of node kinds.
+    public static final int KIND_COUNT = 13;
+
+    /// The handle used for absent nodes.
+    public static final int NONE = -1;
+
+    private static final OperatorType[] OPERATORS = OperatorType.values();
+
+    private final LineMap lines;
+    private final int root;
+    private final int[] kinds;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    // symbol id for names, operator ordinal for binary operations and assignments, literal index for literals
+    private final int[] payloads;
+    private final int[] starts;
+    private final int[] ends;
+    // start of the operator token of assignments
+    private final int[] operatorStarts;
+    private final String[] names;
+    private final String[] literalTexts;
+    private final int[] literalBases;
+    private final long[] literalValues;
+
+    private FlatAst(Builder builder, int root) {
+        this.lines = builder.lines == null ? new LineMap() : builder.lines;
+        this.root = root;
+        int size = builder.size;
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.firstChildren = Arrays.copyOf(builder.firstChildren, size);
+        this.nextSiblings = Arrays.copyOf(builder.nextSiblings, size);
+        this.payloads = Arrays.copyOf(builder.payloads, size);
+        this.starts = Arrays.copyOf(builder.starts, size);
+        this.ends = Arrays.copyOf(builder.ends, size);
+        this.operatorStarts = Arrays.copyOf(builder.operatorStarts, size);
+        this.names = Arrays.copyOf(builder.names, builder.names.length);
+        this.literalTexts = builder.literalTexts.toArray(String[]::new);
+        this.literalBases = Arrays.copyOf(builder.literalBases, builder.literalTexts.size());
+        this.literalValues = Arrays.copyOf(builder.literalValues, builder.literalTexts.size());
+    }
+
+    /// {@return the handle of the program node}
+    public int root() {
+        return this.root;
+    }
+
+    public int size() {
+        return this.kinds.length;
+    }
+
+    public int kind(int node) {
+        return this.kinds[node];
+    }
+
+    /// {@return the first child of the given node, or [#NONE]}
+    public int firstChild(int node) {
+        return this.firstChildren[node];
+    }
+
+    /// {@return the next child of the parent of the given node, or [#NONE]}
+    public int nextSibling(int node) {
+        return this.nextSiblings[node];
+    }
+
+    /// {@return the child at the given index, or [#NONE] if there are not enough children}
+    public int child(int node, int index) {
+        int child = this.firstChildren[node];
+        for (int i = 0; i < index && child != NONE; i++) {
+            child = this.nextSiblings[child];
+        }
+        return child;
+    }
+
+    /// {@return the symbol id of a [#NAME] node}
+    public int symbol(int node) {
+        return this.payloads[node];
+    }
+
+    /// {@return the name of a [#NAME] node}
+    public Name name(int node) {
+        return Name.forSymbol(this.names[this.payloads[node]], this.payloads[node]);
+    }
+
+    /// {@return the operator of a [#BINARY_OPERATION] or [#ASSIGNMENT] node}
+    public OperatorType operator(int node) {
+        return OPERATORS[this.payloads[node]];
+    }
+
+    /// {@return the digits of a [#LITERAL] node as written in the source}
+    public String literalText(int node) {
+        return this.literalTexts[this.payloads[node]];
+    }
+
+    /// {@return the base of a [#LITERAL] node}
+    public int literalBase(int node) {
+        return this.literalBases[this.payloads[node]];
+    }
+
+    /// {@return the value of a [#LITERAL] node, parsed when it was added, or [LiteralTree#INVALID] if it is out of range}
+    public long literalValue(int node) {
+        return this.literalValues[this.payloads[node]];
+    }
+
+    public Span span(int node) {
+        return new Span.SourceSpan(this.lines, this.starts[node], this.ends[node]);
+    }
+
+    /// {@return a cursor that visits all nodes below and including the given one in postorder}
+    public Cursor postorder(int node) {
+        return new Cursor(node);
+    }
+
+    /// A postorder traversal that keeps the path to the current node on an explicit stack.
+    public final class Cursor {
+        private int[] stack = new int[16];
+        private int depth;
+        private boolean started;
+
+        private Cursor(int node) {
+            push(node);
+            descend();
+        }
+
+        /// Moves to the next node.
+        /// @return `false` if all nodes were visited
+        public boolean next() {
+            if (!this.started) {
+                this.started = true;
+                return this.depth > 0;
+            }
+            int current = this.stack[--this.depth];
+            if (this.depth == 0) {
+                return false;
+            }
+            int sibling = nextSibling(current);
+            if (sibling != NONE) {
+                push(sibling);
+                descend();
+            }
+            return true;
+        }
+
+        /// {@return the current node}
+        public int node() {
+            return this.stack[this.depth - 1];
+        }
+
+        private void descend() {
+            int child;
+            while ((child = firstChild(this.stack[this.depth - 1])) != NONE) {
+                push(child);
+            }
+        }
+
+        private void push(int node) {
+            if (this.depth == this.stack.length) {
+                this.stack = Arrays.copyOf(this.stack, this.depth * 2);
+            }
+            this.stack[this.depth++] = node;
+        }
+    }
+
+    /// {@return the record AST of the whole program}
+    public ProgramTree toTree() {
+        return (ProgramTree) tree(this.root);
+    }
+
+    /// {@return the record view of the given node and all nodes below it}
+    public Tree tree(int node) {
+        // children are created before their parent, so they are on top of the stack when the parent is created
+        List<Tree> created = new ArrayList<>();
+        Cursor cursor = postorder(node);
+        while (cursor.next()) {
+            int current = cursor.node();
+            List<Tree> children = created.subList(created.size() - childCount(current), created.size());
+            Tree tree = view(current, children);
+            children.clear();
+            created.add(tree);
+        }
+        return created.getFirst();
+    }
+
+    private int childCount(int node) {
+        int count = 0;
+        for (int child = firstChild(node); child != NONE; child = nextSibling(child)) {
+            count++;
+        }
+        return count;
+    }
+
+    /// {@return the record of the given node, whose children were created already}
+    private Tree view(int node, List<Tree> children) {
+        return switch (this.kinds[node]) {
+            case PROGRAM -> {
+                List<FunctionTree> functions = new ArrayList<>();
+                for (Tree child : children) {
+                    functions.add((FunctionTree) child);
+                }
+                yield new ProgramTree(functions);
+            }
+            case FUNCTION -> new FunctionTree(
+                (TypeTree) children.get(0),
+                (NameTree) children.get(1),
+                (BlockTree) children.get(2)
+            );
+            case BLOCK -> {
+                List<StatementTree> statements = new ArrayList<>();
+                for (Tree child : children) {
+                    statements.add((StatementTree) child);
+                }
+                yield new BlockTree(statements, span(node));
+            }
+            case DECLARATION -> new DeclarationTree(
+                (TypeTree) children.get(0),
+                (NameTree) children.get(1),
+                children.size() > 2 ? (ExpressionTree) children.get(2) : null
+            );
+            case ASSIGNMENT -> {
+                OperatorType type = operator(node);
+                int operatorStart = this.operatorStarts[node];
+                Span operatorSpan = new Span.SourceSpan(this.lines, operatorStart, operatorStart + type.toString().length());
+                yield new AssignmentTree(
+                    (LValueTree) children.get(0),
+                    new Operator(type, operatorSpan),
+                    (ExpressionTree) children.get(1)
+                );
+            }
+            case RETURN -> new ReturnTree(
+                (ExpressionTree) children.getFirst(),
+                new Position.OffsetPosition(this.lines, this.starts[node])
+            );
+            case BINARY_OPERATION -> new BinaryOperationTree(
+                (ExpressionTree) children.get(0),
+                (ExpressionTree) children.get(1),
+                operator(node)
+            );
+            // the minus is always a single char
+            case NEGATE -> new NegateTree(
+                (ExpressionTree) children.getFirst(),
+                new Span.SourceSpan(this.lines, this.starts[node], this.starts[node] + 1)
+            );
+            case LITERAL -> new LiteralTree(literalText(node), literalBase(node), literalValue(node), span(node));
+            case IDENT_EXPRESSION -> new IdentExpressionTree((NameTree) children.getFirst());
+            case LVALUE_IDENT -> new LValueIdentTree((NameTree) children.getFirst());
+            case NAME -> new NameTree(name(node), span(node));
+            case TYPE -> new TypeTree(BasicType.INT, span(node));
+            default -> throw new IllegalStateException("unknown node kind " + this.kinds[node]);
+        };
+    }
+
+    /// Creates the nodes of a [FlatAst] bottom-up, children are always created before their parent.
+    /// All spans passed to the builder must be [Span.SourceSpan]s of the same source.
+    public static final class Builder implements ParseTarget {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private @Nullable LineMap lines;
+        private int size;
+        private int[] kinds = new int[INITIAL_CAPACITY];
+        private int[] firstChildren = new int[INITIAL_CAPACITY];
+        private int[] nextSiblings = new int[INITIAL_CAPACITY];
+        private int[] payloads = new int[INITIAL_CAPACITY];
+        private int[] starts = new int[INITIAL_CAPACITY];
+        private int[] ends = new int[INITIAL_CAPACITY];
+        private int[] operatorStarts = new int[INITIAL_CAPACITY];
+        private String[] names = new String[INITIAL_CAPACITY];
+        private final List<String> literalTexts = new ArrayList<>();
+        private int[] literalBases = new int[INITIAL_CAPACITY];
+        private long[] literalValues = new long[INITIAL_CAPACITY];
+
+        public FlatAst build(int root) {
+            return new FlatAst(this, root);
+        }
+
+        @Override
+        public int program(int[] functions, int count) {
+            return withChildren(add(PROGRAM, 0, start(functions[0]), end(functions[count - 1])), functions, count);
+        }
+
+        @Override
+        public int function(int returnType, int name, int body) {
+            return withChildren(add(FUNCTION, 0, start(returnType), end(body)), returnType, name, body);
+        }
+
+        @Override
+        public int block(Span open, Span close, int[] statements, int count) {
+            return withChildren(add(BLOCK, 0, startOffset(open), endOffset(close)), statements, count);
+        }
+
+        /// @param initializer the initializer, or [#NONE]
+        @Override
+        public int declaration(int type, int name, int initializer) {
+            if (initializer == NONE) {
+                return withChildren(add(DECLARATION, 0, start(type), end(name)), type, name);
+            }
+            return withChildren(add(DECLARATION, 0, start(type), end(initializer)), type, name, initializer);
+        }
+
+        @Override
+        public int assignment(int lValue, Operator operator, int expression) {
+            int node = add(ASSIGNMENT, operator.type().ordinal(), start(lValue), end(expression));
+            this.operatorStarts[node] = startOffset(operator.span());
+            return withChildren(node, lValue, expression);
+        }
+
+        @Override
+        public int returnStatement(Span keyword, int expression) {
+            return withChildren(add(RETURN, 0, startOffset(keyword), end(expression)), expression);
+        }
+
+        @Override
+        public int binaryOperation(int lhs, int rhs, OperatorType type) {
+            return withChildren(add(BINARY_OPERATION, type.ordinal(), start(lhs), end(rhs)), lhs, rhs);
+        }
+
+        @Override
+        public int negate(Span minus, int expression) {
+            return withChildren(add(NEGATE, 0, startOffset(minus), end(expression)), expression);
+        }
+
+        @Override
+        public int literal(NumberLiteral literal) {
+            int index = this.literalTexts.size();
+            this.literalTexts.add(literal.value());
+            if (index == this.literalBases.length) {
+                this.literalBases = Arrays.copyOf(this.literalBases, index * 2);
+                this.literalValues = Arrays.copyOf(this.literalValues, index * 2);
+            }
+            this.literalBases[index] = literal.base();
+            this.literalValues[index] = LiteralTree.parse(literal.value(), literal.base());
+            return add(LITERAL, index, startOffset(literal.span()), endOffset(literal.span()));
+        }
+
+        @Override
+        public int identExpression(int name) {
+            return withChildren(add(IDENT_EXPRESSION, 0, start(name), end(name)), name);
+        }
+
+        @Override
+        public int lValueIdent(int name) {
+            return withChildren(add(LVALUE_IDENT, 0, start(name), end(name)), name);
+        }
+
+        @Override
+        public int name(Identifier identifier) {
+            int symbol = identifier.symbol();
+            if (symbol >= this.names.length) {
+                this.names = Arrays.copyOf(this.names, Math.max(symbol + 1, this.names.length * 2));
+            }
+            this.names[symbol] = identifier.value();
+            return add(NAME, symbol, startOffset(identifier.span()), endOffset(identifier.span()));
+        }
+
+        @Override
+        public int type(Span span) {
+            return add(TYPE, 0, startOffset(span), endOffset(span));
+        }
+
+        private int start(int node) {
+            return this.starts[node];
+        }
+
+        private int end(int node) {
+            return this.ends[node];
+        }
+
+        private int add(int kind, int payload, int start, int end) {
+            if (this.size == this.kinds.length) {
+                int capacity = this.size * 2;
+                this.kinds = Arrays.copyOf(this.kinds, capacity);
+                this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+                this.nextSiblings = Arrays.copyOf(this.nextSiblings, capacity);
+                this.payloads = Arrays.copyOf(this.payloads, capacity);
+                this.starts = Arrays.copyOf(this.starts, capacity);
+                this.ends = Arrays.copyOf(this.ends, capacity);
+                this.operatorStarts = Arrays.copyOf(this.operatorStarts, capacity);
+            }
+            int node = this.size++;
+            this.kinds[node] = kind;
+            this.firstChildren[node] = NONE;
+            this.nextSiblings[node] = NONE;
+            this.payloads[node] = payload;
+            this.starts[node] = start;
+            this.ends[node] = end;
+            return node;
+        }
+
+        private int withChildren(int node, int child) {
+            this.firstChildren[node] = child;
+            return node;
+        }
+
+        private int withChildren(int node, int first, int second) {
+            this.nextSiblings[first] = second;
+            return withChildren(node, first);
+        }
+
+        private int withChildren(int node, int first, int second, int third) {
+            this.nextSiblings[second] = third;
+            return withChildren(node, first, second);
+        }
+
+        private int withChildren(int node, int[] children, int count) {
+            if (count > 0) {
+                this.firstChildren[node] = children[0];
+                for (int i = 1; i < count; i++) {
+                    this.nextSiblings[children[i - 1]] = children[i];
+                }
+            }
+            return node;
+        }
+
+        private int startOffset(Span span) {
+            return sourceSpan(span).startOffset();
+        }
+
+        private int endOffset(Span span) {
+            return sourceSpan(span).endOffset();
+        }
+
+        private Span.SourceSpan sourceSpan(Span span) {
+            if (!(span instanceof Span.SourceSpan sourceSpan)) {
+                throw new IllegalArgumentException("flat trees can only store source spans, got " + span);
+            }
+            if (this.lines == null) {
+                this.lines = sourceSpan.lines();
+            } else if (this.lines != sourceSpan.lines()) {
+                throw new IllegalArgumentException("all spans must belong to the same source");
+            }
+            return sourceSpan;
+        }
+    }
+}
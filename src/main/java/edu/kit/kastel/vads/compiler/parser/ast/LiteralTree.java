@@ -1,46 +1,99 @@
 package edu.kit.kastel.vads.compiler.parser.ast;
 
 import edu.kit.kastel.vads.compiler.Span;
-import edu.kit.kastel.vads.compiler.parser.ParseException;
 import edu.kit.kastel.vads.compiler.parser.visitor.Visitor;
-import edu.kit.kastel.vads.compiler.semantic.SemanticException;
-import java.util.Optional;
 import java.util.OptionalLong;
 
-public record LiteralTree(String value, int base, Span span) implements ExpressionTree {
+/// A number literal, with its value parsed once when the tree is created.
+/// @param parsedValue the value of the literal, or [#INVALID] if it is out of range
+public record LiteralTree(String value, int base, long parsedValue, Span span) implements ExpressionTree {
+    /// The parsed value of literals that are out of range. No valid literal has this value.
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // decimal literals up to 2^31 are valid, as the operand of a negation
+    private static final long MAX_DECIMAL = 1L << 31;
+    private static final long MAX_HEX = 0xFFFF_FFFFL;
+
+    public LiteralTree(String value, int base, Span span) {
+        this(value, base, parse(value, base), span);
+    }
+
     @Override
     public <T, R> R accept(Visitor<T, R> visitor, T data) {
         return visitor.visit(this, data);
     }
 
     public OptionalLong parseValue() {
-        int end = value.length();
+        return this.parsedValue == INVALID ? OptionalLong.empty() : OptionalLong.of(this.parsedValue);
+    }
+
+    /// {@return the value of a literal with the given digits and base, or nothing if it is out of range}
+    public static OptionalLong parseValue(String value, int base) {
+        long parsed = parse(value, base);
+        return parsed == INVALID ? OptionalLong.empty() : OptionalLong.of(parsed);
+    }
+
+    /// Parses the digits of a literal without throwing for malformed or out of range values.
+    /// Hex literals are interpreted as 32-bit two's complement, so `0xFFFFFFFF` is `-1`.
+    /// @return the value of the literal, or [#INVALID] if it is out of range
+    public static long parse(String value, int base) {
         return switch (base) {
-            case 16 -> parseHex(end);
-            case 10 -> parseDec(end);
+            case 16 -> parseHex(value);
+            case 10 -> parseDec(value);
             default -> throw new IllegalArgumentException("unexpected base " + base);
         };
     }
 
-    private OptionalLong parseDec(int end) {
-        long l;
-        try {
-            l = Long.parseLong(value, 0, end, base);
-        } catch (NumberFormatException _) {
-            return OptionalLong.empty();
+    private static long parseDec(String value) {
+        int end = value.length();
+        if (end == 0) {
+            return INVALID;
         }
-        if (l < 0 || l > Integer.toUnsignedLong(Integer.MIN_VALUE)) {
-            return OptionalLong.empty();
+        long result = 0;
+        for (int i = 0; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID;
+            }
+            // checked after every digit, so the result can never overflow
+            result = result * 10 + digit;
+            if (result > MAX_DECIMAL) {
+                return INVALID;
+            }
         }
-        return OptionalLong.of(l);
+        return result;
     }
 
-    private OptionalLong parseHex(int end) {
-        try {
-            return OptionalLong.of(Integer.parseUnsignedInt(value, 2, end, 16));
-        } catch (NumberFormatException e) {
-            return OptionalLong.empty();
+    // the digits follow the 0x prefix
+    private static long parseHex(String value) {
+        int end = value.length();
+        if (end <= 2) {
+            return INVALID;
+        }
+        long result = 0;
+        for (int i = 2; i < end; i++) {
+            int digit = hexDigit(value.charAt(i));
+            if (digit < 0) {
+                return INVALID;
+            }
+            result = result << 4 | digit;
+            if (result > MAX_HEX) {
+                return INVALID;
+            }
         }
+        return (int) result;
     }
 
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
 }
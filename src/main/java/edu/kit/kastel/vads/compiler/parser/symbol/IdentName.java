@@ -1,8 +1,26 @@
 package edu.kit.kastel.vads.compiler.parser.symbol;
 
-record IdentName(String identifier) implements Name {
+/// A name spelled by an identifier.
+/// Names are compared by their symbol id only, which is unique for each distinct identifier.
+record IdentName(String identifier, int symbol) implements Name {
     @Override
     public String asString() {
         return identifier();
     }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IdentName other && other.symbol == this.symbol;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.symbol;
+    }
+
+    // symbol ids depend on the order identifiers were interned, diagnostics only show the identifier
+    @Override
+    public String toString() {
+        return "IdentName[identifier=" + this.identifier + "]";
+    }
 }
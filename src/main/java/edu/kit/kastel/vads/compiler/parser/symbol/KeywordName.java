@@ -7,4 +7,9 @@ record KeywordName(KeywordType type) implements Name {
     public String asString() {
         return type().keyword();
     }
+
+    @Override
+    public int symbol() {
+        return -1;
+    }
 }
@@ -10,8 +10,17 @@ public sealed interface Name permits IdentName, KeywordName {
     }
 
     static Name forIdentifier(Identifier identifier) {
-        return new IdentName(identifier.value());
+        return forSymbol(identifier.value(), identifier.symbol());
+    }
+
+    /// {@return the name of the identifier with the given symbol id}
+    static Name forSymbol(String identifier, int symbol) {
+        return new IdentName(identifier, symbol);
     }
 
     String asString();
+
+    /// {@return the id of this name in [edu.kit.kastel.vads.compiler.lexer.Symbols], `-1` for keywords}
+    /// Ids are dense, so they can be used to index arrays instead of hashing names.
+    int symbol();
 }
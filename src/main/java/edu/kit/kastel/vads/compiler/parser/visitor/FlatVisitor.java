@@ -0,0 +1,24 @@
+package edu.kit.kastel.vads.compiler.parser.visitor;
+
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
+
+/// Visits the nodes of a [FlatAst], which are dispatched by their kind instead of their type.
+/// @param <T> a type for additional data
+public interface FlatVisitor<T> {
+
+    void visit(FlatAst ast, int node, T data);
+
+    /// {@return whether this visitor does anything for nodes of the given kind}
+    /// Callers may skip visiting nodes of other kinds.
+    default boolean visits(int kind) {
+        return true;
+    }
+
+    /// Visits all nodes of the given tree in postorder, the children of a node from first to last before the node.
+    static <T> void visitPostorder(FlatAst ast, FlatVisitor<T> visitor, T data) {
+        FlatAst.Cursor cursor = ast.postorder(ast.root());
+        while (cursor.next()) {
+            visitor.visit(ast, cursor.node(), data);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
+import edu.kit.kastel.vads.compiler.parser.visitor.FlatVisitor;
+import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// Runs all registered checks in a single postorder traversal, each check with its own state.
+/// A check is only passed the nodes whose kind it [visits][FlatVisitor#visits(int)].
+///
+/// Reported errors are the same as if the checks ran one after the other in the order they were registered:
+/// once a check fails, it and all checks registered after it are not run anymore,
+/// and its error is only thrown if no earlier check fails for the rest of the program.
+class FusedAnalysis implements FlatVisitor<Unit> {
+    private final List<Check<?>> checks = new ArrayList<>();
+    // the indices of the checks that visit each kind of flat node, in ascending order
+    private int[][] checksByKind = new int[FlatAst.KIND_COUNT][0];
+    // the number of checks that are still run, all checks from this index on are skipped
+    private int active;
+    private @Nullable SemanticException failure;
+
+    <T> FusedAnalysis register(FlatVisitor<T> check, T state) {
+        int index = this.checks.size();
+        this.checks.add(new Check<>(check, state));
+        this.active = this.checks.size();
+        for (int kind = 0; kind < FlatAst.KIND_COUNT; kind++) {
+            if (check.visits(kind)) {
+                int[] indices = this.checksByKind[kind];
+                indices = Arrays.copyOf(indices, indices.length + 1);
+                indices[indices.length - 1] = index;
+                this.checksByKind[kind] = indices;
+            }
+        }
+        return this;
+    }
+
+    void analyze(FlatAst ast) {
+        FlatVisitor.visitPostorder(ast, this, Unit.INSTANCE);
+        throwFailure();
+    }
+
+    private void throwFailure() {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    @Override
+    public void visit(FlatAst ast, int node, Unit data) {
+        for (int check : this.checksByKind[ast.kind(node)]) {
+            if (check >= this.active) {
+                return;
+            }
+            try {
+                this.checks.get(check).visit(ast, node);
+            } catch (SemanticException e) {
+                fail(check, e);
+            }
+        }
+    }
+
+    private void fail(int check, SemanticException e) {
+        if (check == 0) {
+            // no other check can report an error first
+            throw e;
+        }
+        this.failure = e;
+        this.active = check;
+    }
+
+    private record Check<T>(FlatVisitor<T> visitor, T state) {
+
+        // only visits the given node itself, its children were visited already
+        void visit(FlatAst ast, int node) {
+            this.visitor.visit(ast, node, this.state);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.lexer.Operator.OperatorType;
+import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
+import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/// Runs the checks of the [SemanticAnalysis] while a program is parsed, without an AST.
+/// The constructs must be passed in the order a postorder traversal of the AST would visit them.
+///
+/// Errors are not thrown right away, so a parse error later in the program is still reported first.
+/// [#finish()] throws the same error the [SemanticAnalysis] would report for the whole program.
+public class InlineSemanticAnalysis {
+    // the checks in the order their errors are reported, see SemanticAnalysis
+    private static final int LITERAL_RANGE = 0;
+    private static final int VARIABLE_STATUS = 1;
+    private static final int RETURN = 2;
+    private static final int NO_FAILURE = 3;
+
+    private final SymbolTable<VariableStatusAnalysis.VariableStatus> variables = new SymbolTable<>();
+    private boolean returns;
+    // the check that failed first, checks from this one on are not run anymore
+    private int failedCheck = NO_FAILURE;
+    private @Nullable SemanticException failure;
+
+    /// {@return whether an error was found, the program is invalid then}
+    public boolean failed() {
+        return this.failure != null;
+    }
+
+    /// Throws the error found in the program, if any.
+    public void finish() {
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    public void literal(long value, String text) {
+        if (value == LiteralTree.INVALID) {
+            fail(LITERAL_RANGE, new SemanticException("invalid integer literal " + text));
+        }
+    }
+
+    public void declaration(int symbol, boolean initialized, Supplier<NameTree> name) {
+        if (this.failedCheck > VARIABLE_STATUS) {
+            try {
+                VariableStatusAnalysis.checkDeclaration(this.variables, symbol, initialized, name);
+            } catch (SemanticException e) {
+                fail(VARIABLE_STATUS, e);
+            }
+        }
+    }
+
+    public void assignment(int symbol, OperatorType operator, Supplier<NameTree> name) {
+        if (this.failedCheck > VARIABLE_STATUS) {
+            try {
+                VariableStatusAnalysis.checkAssignment(this.variables, symbol, operator, name);
+            } catch (SemanticException e) {
+                fail(VARIABLE_STATUS, e);
+            }
+        }
+    }
+
+    public void identExpression(int symbol, Supplier<NameTree> name) {
+        if (this.failedCheck > VARIABLE_STATUS) {
+            try {
+                VariableStatusAnalysis.checkInitialized(name, this.variables.get(symbol));
+            } catch (SemanticException e) {
+                fail(VARIABLE_STATUS, e);
+            }
+        }
+    }
+
+    public void returnStatement() {
+        this.returns = true;
+    }
+
+    public void function(Supplier<NameTree> name) {
+        if (this.failedCheck > VARIABLE_STATUS) {
+            VariableStatusAnalysis.leaveFunction(this.variables);
+        }
+        if (this.failedCheck > RETURN && !this.returns) {
+            fail(RETURN, new SemanticException("function " + name.get() + " does not return"));
+        }
+        this.returns = false;
+    }
+
+    private void fail(int check, SemanticException e) {
+        if (check < this.failedCheck) {
+            this.failedCheck = check;
+            this.failure = e;
+        }
+    }
+}
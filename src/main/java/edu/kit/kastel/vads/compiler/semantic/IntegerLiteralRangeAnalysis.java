@@ -1,17 +1,21 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 import edu.kit.kastel.vads.compiler.parser.ast.LiteralTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
-import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import edu.kit.kastel.vads.compiler.parser.visitor.FlatVisitor;
 
-public class IntegerLiteralRangeAnalysis implements NoOpVisitor<Namespace<Void>> {
+public class IntegerLiteralRangeAnalysis implements FlatVisitor<Namespace<Void>> {
 
     @Override
-    public Unit visit(LiteralTree literalTree, Namespace<Void> data) {
-      literalTree.parseValue()
-          .orElseThrow(
-              () -> new SemanticException("invalid integer literal " + literalTree.value())
-          );
-        return NoOpVisitor.super.visit(literalTree, data);
+    public boolean visits(int kind) {
+        return kind == FlatAst.LITERAL;
+    }
+
+    @Override
+    public void visit(FlatAst ast, int node, Namespace<Void> data) {
+        if (ast.kind(node) == FlatAst.LITERAL
+            && ast.literalValue(node) == LiteralTree.INVALID) {
+            throw new SemanticException("invalid integer literal " + ast.literalText(node));
+        }
     }
 }
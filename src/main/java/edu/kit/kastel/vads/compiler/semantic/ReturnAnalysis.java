@@ -1,30 +1,33 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
-import edu.kit.kastel.vads.compiler.parser.ast.FunctionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.ReturnTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
-import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
+import edu.kit.kastel.vads.compiler.parser.visitor.FlatVisitor;
 
 /// Checks that functions return.
 /// Currently only works for straight-line code.
-class ReturnAnalysis implements NoOpVisitor<ReturnAnalysis.ReturnState> {
+class ReturnAnalysis implements FlatVisitor<ReturnAnalysis.ReturnState> {
 
     static class ReturnState {
         boolean returns = false;
     }
 
     @Override
-    public Unit visit(ReturnTree returnTree, ReturnState data) {
-        data.returns = true;
-        return NoOpVisitor.super.visit(returnTree, data);
+    public boolean visits(int kind) {
+        return kind == FlatAst.RETURN || kind == FlatAst.FUNCTION;
     }
 
     @Override
-    public Unit visit(FunctionTree functionTree, ReturnState data) {
-        if (!data.returns) {
-            throw new SemanticException("function " + functionTree.name() + " does not return");
+    public void visit(FlatAst ast, int node, ReturnState data) {
+        switch (ast.kind(node)) {
+            case FlatAst.RETURN -> data.returns = true;
+            case FlatAst.FUNCTION -> {
+                if (!data.returns) {
+                    throw new SemanticException("function " + ast.tree(ast.child(node, 1)) + " does not return");
+                }
+                data.returns = false;
+            }
+            default -> {
+            }
         }
-        data.returns = false;
-        return NoOpVisitor.super.visit(functionTree, data);
     }
 }
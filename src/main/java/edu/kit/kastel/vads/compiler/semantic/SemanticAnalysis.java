@@ -1,20 +1,22 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
-import edu.kit.kastel.vads.compiler.parser.ast.ProgramTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.RecursivePostorderVisitor;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 
 public class SemanticAnalysis {
 
-    private final ProgramTree program;
+    private final FlatAst ast;
 
-    public SemanticAnalysis(ProgramTree program) {
-        this.program = program;
+    public SemanticAnalysis(FlatAst ast) {
+        this.ast = ast;
     }
 
     public void analyze() {
-        this.program.accept(new RecursivePostorderVisitor<>(new IntegerLiteralRangeAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new VariableStatusAnalysis()), new Namespace<>());
-        this.program.accept(new RecursivePostorderVisitor<>(new ReturnAnalysis()), new ReturnAnalysis.ReturnState());
+        // the checks run in a single traversal, but report errors in this order
+        new FusedAnalysis()
+            .register(new IntegerLiteralRangeAnalysis(), new Namespace<Void>())
+            .register(new VariableStatusAnalysis(), new SymbolTable<VariableStatusAnalysis.VariableStatus>())
+            .register(new ReturnAnalysis(), new ReturnAnalysis.ReturnState())
+            .analyze(this.ast);
     }
 
 }
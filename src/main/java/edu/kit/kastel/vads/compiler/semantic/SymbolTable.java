@@ -0,0 +1,94 @@
+package edu.kit.kastel.vads.compiler.semantic;
+
+import edu.kit.kastel.vads.compiler.parser.symbol.Name;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+
+/// Maps identifiers to values in nested scopes, keyed by the dense [symbol id][Name#symbol()] of the identifier.
+/// Values are stored in an array indexed by symbol id, so lookups do not hash.
+///
+/// The first update of a symbol in each scope is recorded in an undo log,
+/// so leaving a scope reverts only the updates made in it, without copying the table.
+public final class SymbolTable<T> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private @Nullable Object[] values = new Object[INITIAL_CAPACITY];
+    // the depth of the scope that last logged a symbol, 0 if it was not updated in any open scope
+    private int[] loggedDepths = new int[INITIAL_CAPACITY];
+
+    // the undo log, one entry per symbol and scope it was updated in
+    private int[] changedSymbols = new int[INITIAL_CAPACITY];
+    private @Nullable Object[] previousValues = new Object[INITIAL_CAPACITY];
+    private int[] previousDepths = new int[INITIAL_CAPACITY];
+    private int changes;
+
+    // the size of the undo log when each open scope was entered
+    private int[] scopeStarts = new int[8];
+    private int depth;
+
+    public SymbolTable() {
+        pushScope();
+    }
+
+    public void pushScope() {
+        if (this.depth == this.scopeStarts.length) {
+            this.scopeStarts = Arrays.copyOf(this.scopeStarts, this.depth * 2);
+        }
+        this.scopeStarts[this.depth++] = this.changes;
+    }
+
+    /// Leaves the innermost scope and restores all values to what they were when it was entered.
+    public void popScope() {
+        int start = this.scopeStarts[--this.depth];
+        while (this.changes > start) {
+            this.changes--;
+            int symbol = this.changedSymbols[this.changes];
+            this.values[symbol] = this.previousValues[this.changes];
+            this.loggedDepths[symbol] = this.previousDepths[this.changes];
+            this.previousValues[this.changes] = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(int symbol) {
+        return symbol < this.values.length ? (T) this.values[symbol] : null;
+    }
+
+    public void put(int symbol, T value) {
+        ensureCapacity(symbol);
+        if (this.loggedDepths[symbol] != this.depth) {
+            log(symbol);
+        }
+        this.values[symbol] = value;
+    }
+
+    /// Updates the value of the given symbol like [java.util.Map#merge].
+    public void put(int symbol, T value, BinaryOperator<T> merger) {
+        T existing = get(symbol);
+        put(symbol, existing == null ? value : merger.apply(existing, value));
+    }
+
+    private void log(int symbol) {
+        if (this.changes == this.changedSymbols.length) {
+            int capacity = this.changes * 2;
+            this.changedSymbols = Arrays.copyOf(this.changedSymbols, capacity);
+            this.previousValues = Arrays.copyOf(this.previousValues, capacity);
+            this.previousDepths = Arrays.copyOf(this.previousDepths, capacity);
+        }
+        this.changedSymbols[this.changes] = symbol;
+        this.previousValues[this.changes] = this.values[symbol];
+        this.previousDepths[this.changes] = this.loggedDepths[symbol];
+        this.changes++;
+        this.loggedDepths[symbol] = this.depth;
+    }
+
+    private void ensureCapacity(int symbol) {
+        if (symbol >= this.values.length) {
+            int capacity = Math.max(this.values.length * 2, symbol + 1);
+            this.values = Arrays.copyOf(this.values, capacity);
+            this.loggedDepths = Arrays.copyOf(this.loggedDepths, capacity);
+        }
+    }
+}
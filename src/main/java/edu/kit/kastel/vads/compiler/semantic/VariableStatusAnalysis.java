@@ -1,73 +1,68 @@
 package edu.kit.kastel.vads.compiler.semantic;
 
 import edu.kit.kastel.vads.compiler.lexer.Operator;
-import edu.kit.kastel.vads.compiler.parser.ast.AssignmentTree;
-import edu.kit.kastel.vads.compiler.parser.ast.DeclarationTree;
-import edu.kit.kastel.vads.compiler.parser.ast.IdentExpressionTree;
-import edu.kit.kastel.vads.compiler.parser.ast.LValueIdentTree;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
 import edu.kit.kastel.vads.compiler.parser.ast.NameTree;
-import edu.kit.kastel.vads.compiler.parser.visitor.NoOpVisitor;
-import edu.kit.kastel.vads.compiler.parser.visitor.Unit;
+import edu.kit.kastel.vads.compiler.parser.visitor.FlatVisitor;
 import org.jspecify.annotations.Nullable;
 
 import java.util.Locale;
+import java.util.function.Supplier;
 
 /// Checks that variables are
 /// - declared before assignment
 /// - not declared twice
 /// - not initialized twice
 /// - assigned before referenced
-class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnalysis.VariableStatus>> {
+class VariableStatusAnalysis implements FlatVisitor<SymbolTable<VariableStatusAnalysis.VariableStatus>> {
 
-    @Override
-    public Unit visit(AssignmentTree assignmentTree, Namespace<VariableStatus> data) {
-        switch (assignmentTree.lValue()) {
-            case LValueIdentTree(var name) -> {
-                VariableStatus status = data.get(name);
-                if (assignmentTree.operator().type() == Operator.OperatorType.ASSIGN) {
-                    checkDeclared(name, status);
-                } else {
-                    checkInitialized(name, status);
-                }
-                if (status != VariableStatus.INITIALIZED) {
-                    // only update when needed, reassignment is totally fine
-                    updateStatus(data, VariableStatus.INITIALIZED, name);
-                }
-            }
+    static void checkAssignment(
+        SymbolTable<VariableStatus> data, int symbol, Operator.OperatorType operator, Supplier<NameTree> nameTree
+    ) {
+        VariableStatus status = data.get(symbol);
+        if (operator == Operator.OperatorType.ASSIGN) {
+            checkDeclared(nameTree, status);
+        } else {
+            checkInitialized(nameTree, status);
+        }
+        if (status != VariableStatus.INITIALIZED) {
+            // only update when needed, reassignment is totally fine
+            updateStatus(data, VariableStatus.INITIALIZED, symbol);
         }
-        return NoOpVisitor.super.visit(assignmentTree, data);
     }
 
-    private static void checkDeclared(NameTree name, @Nullable VariableStatus status) {
+    // the names are only needed for error messages, so they are only created on failure
+
+    private static void checkDeclared(Supplier<NameTree> name, @Nullable VariableStatus status) {
         if (status == null) {
-            throw new SemanticException("Variable " + name + " must be declared before assignment");
+            throw new SemanticException("Variable " + name.get() + " must be declared before assignment");
         }
     }
 
-    private static void checkInitialized(NameTree name, @Nullable VariableStatus status) {
+    static void checkInitialized(Supplier<NameTree> name, @Nullable VariableStatus status) {
         if (status == null || status == VariableStatus.DECLARED) {
-            throw new SemanticException("Variable " + name + " must be initialized before use");
+            throw new SemanticException("Variable " + name.get() + " must be initialized before use");
         }
     }
 
-    private static void checkUndeclared(NameTree name, @Nullable VariableStatus status) {
+    private static void checkUndeclared(Supplier<NameTree> name, @Nullable VariableStatus status) {
         if (status != null) {
-            throw new SemanticException("Variable " + name + " is already declared");
+            throw new SemanticException("Variable " + name.get() + " is already declared");
         }
     }
 
-    @Override
-    public Unit visit(DeclarationTree declarationTree, Namespace<VariableStatus> data) {
-        checkUndeclared(declarationTree.name(), data.get(declarationTree.name()));
-        VariableStatus status = declarationTree.initializer() == null
-            ? VariableStatus.DECLARED
-            : VariableStatus.INITIALIZED;
-        updateStatus(data, status, declarationTree.name());
-        return NoOpVisitor.super.visit(declarationTree, data);
+    static void checkDeclaration(
+        SymbolTable<VariableStatus> data, int symbol, boolean initialized, Supplier<NameTree> nameTree
+    ) {
+        checkUndeclared(nameTree, data.get(symbol));
+        VariableStatus status = initialized
+            ? VariableStatus.INITIALIZED
+            : VariableStatus.DECLARED;
+        updateStatus(data, status, symbol);
     }
 
-    private static void updateStatus(Namespace<VariableStatus> data, VariableStatus status, NameTree name) {
-        data.put(name, status, (existing, replacement) -> {
+    private static void updateStatus(SymbolTable<VariableStatus> data, VariableStatus status, int symbol) {
+        data.put(symbol, status, (existing, replacement) -> {
             if (existing.ordinal() >= replacement.ordinal()) {
                 throw new SemanticException("variable is already " + existing + ". Cannot be " + replacement + " here.");
             }
@@ -75,11 +70,38 @@ class VariableStatusAnalysis implements NoOpVisitor<Namespace<VariableStatusAnal
         });
     }
 
+    // variables are local to their function, the next function starts with an empty scope
+    static void leaveFunction(SymbolTable<VariableStatus> data) {
+        data.popScope();
+        data.pushScope();
+    }
+
     @Override
-    public Unit visit(IdentExpressionTree identExpressionTree, Namespace<VariableStatus> data) {
-        VariableStatus status = data.get(identExpressionTree.name());
-        checkInitialized(identExpressionTree.name(), status);
-        return NoOpVisitor.super.visit(identExpressionTree, data);
+    public boolean visits(int kind) {
+        return kind == FlatAst.ASSIGNMENT || kind == FlatAst.DECLARATION || kind == FlatAst.IDENT_EXPRESSION
+            || kind == FlatAst.FUNCTION;
+    }
+
+    @Override
+    public void visit(FlatAst ast, int node, SymbolTable<VariableStatus> data) {
+        switch (ast.kind(node)) {
+            case FlatAst.ASSIGNMENT -> {
+                int name = ast.firstChild(ast.firstChild(node));
+                checkAssignment(data, ast.symbol(name), ast.operator(node), () -> (NameTree) ast.tree(name));
+            }
+            case FlatAst.DECLARATION -> {
+                int name = ast.child(node, 1);
+                boolean initialized = ast.nextSibling(name) != FlatAst.NONE;
+                checkDeclaration(data, ast.symbol(name), initialized, () -> (NameTree) ast.tree(name));
+            }
+            case FlatAst.IDENT_EXPRESSION -> {
+                int name = ast.firstChild(node);
+                checkInitialized(() -> (NameTree) ast.tree(name), data.get(ast.symbol(name)));
+            }
+            case FlatAst.FUNCTION -> leaveFunction(data);
+            default -> {
+            }
+        }
     }
 
     enum VariableStatus {
@@ -2,6 +2,5 @@ import org.jspecify.annotations.NullMarked;
 
 @NullMarked module edu.kit.kastel.vads.compiler {
     requires org.jspecify;
-    requires org.jgrapht.core;
     requires java.xml;
 }
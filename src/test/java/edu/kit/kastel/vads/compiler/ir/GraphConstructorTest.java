@@ -0,0 +1,216 @@
+package edu.kit.kastel.vads.compiler.ir;
+
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.optimize.LocalValueNumbering;
+import edu.kit.kastel.vads.compiler.ir.util.DebugContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GraphConstructorTest {
+    private static final int X = 0;
+
+    private final GraphConstructor constructor = new GraphConstructor(node -> node, "f", new DebugContext(false));
+    private final IrGraph graph = this.constructor.graph();
+    private final Block start = this.graph.startBlock();
+
+    @Test
+    void phiOfUnchangedLoopVariableIsRemovedWhenSealed() {
+        Node one = this.constructor.newConstInt(1);
+        this.constructor.writeVariable(X, this.start, one);
+        Block header = new Block(this.graph);
+        jump(this.start, header);
+        Phi phi = assertInstanceOf(Phi.class, this.constructor.readVariable(X, header));
+        Block body = new Block(this.graph);
+        jump(header, body);
+        this.constructor.sealBlock(body);
+        Node sum = new AddNode(body, this.constructor.readVariable(X, body), one);
+        jump(body, header);
+
+        this.constructor.sealBlock(header);
+
+        assertSame(one, sum.predecessor(BinaryOperationNode.LEFT));
+        assertSame(one, this.constructor.readVariable(X, header));
+        assertSame(one, this.constructor.readVariable(X, body));
+        assertDetached(phi);
+    }
+
+    @Test
+    void phiOfChangedLoopVariableIsKept() {
+        Node one = this.constructor.newConstInt(1);
+        this.constructor.writeVariable(X, this.start, one);
+        Block header = new Block(this.graph);
+        jump(this.start, header);
+        Phi phi = assertInstanceOf(Phi.class, this.constructor.readVariable(X, header));
+        Node next = new AddNode(header, phi, one);
+        this.constructor.writeVariable(X, header, next);
+        jump(header, header);
+
+        this.constructor.sealBlock(header);
+        this.constructor.finish();
+
+        assertEquals(2, phi.predecessorCount());
+        assertSame(one, phi.predecessor(0));
+        assertSame(next, phi.predecessor(1));
+        assertSame(phi, next.predecessor(BinaryOperationNode.LEFT));
+    }
+
+    @Test
+    void phisThatBecomeTrivialAreRemovedAsWell() {
+        Node one = this.constructor.newConstInt(1);
+        Block merge = merge();
+        Phi inner = phi(merge, one, one);
+        Phi outer = phi(merge, inner, one);
+        Node sum = new AddNode(merge, outer, inner);
+
+        assertSame(one, this.constructor.tryRemoveTrivialPhi(inner));
+
+        assertSame(one, sum.predecessor(BinaryOperationNode.LEFT));
+        assertSame(one, sum.predecessor(BinaryOperationNode.RIGHT));
+        assertDetached(inner);
+        assertDetached(outer);
+        assertSame(one, this.constructor.tryRemoveTrivialPhi(outer));
+    }
+
+    @Test
+    void phisOfDifferentValuesAreKept() {
+        Node one = this.constructor.newConstInt(1);
+        Node two = this.constructor.newConstInt(2);
+        Block merge = merge();
+        Phi phi = phi(merge, one, two);
+        Phi undefined = new Phi(merge);
+        undefined.appendOperand(undefined);
+        undefined.appendOperand(undefined);
+
+        assertSame(phi, this.constructor.tryRemoveTrivialPhi(phi));
+        // there is no node for undefined values to replace a phi of only itself
+        assertSame(undefined, this.constructor.tryRemoveTrivialPhi(undefined));
+    }
+
+    @Test
+    void incompletePhiIsKept() {
+        Node one = this.constructor.newConstInt(1);
+        Phi phi = new Phi(merge());
+        phi.appendOperand(one);
+
+        assertSame(phi, this.constructor.tryRemoveTrivialPhi(phi));
+        assertEquals(1, phi.predecessorCount());
+    }
+
+    @Test
+    void redundantPhiCycleIsRemovedByFinish() {
+        Node one = this.constructor.newConstInt(1);
+        Block merge = merge();
+        Phi first = new Phi(merge);
+        Phi second = phi(merge, first, one);
+        first.appendOperand(one);
+        first.appendOperand(second);
+        Node sum = new AddNode(merge, second, first);
+        // neither phi is trivial on its own
+        assertSame(first, this.constructor.tryRemoveTrivialPhi(first));
+        assertSame(second, this.constructor.tryRemoveTrivialPhi(second));
+
+        this.constructor.finish();
+
+        assertSame(one, sum.predecessor(BinaryOperationNode.LEFT));
+        assertSame(one, sum.predecessor(BinaryOperationNode.RIGHT));
+        assertDetached(first);
+        assertDetached(second);
+    }
+
+    @Test
+    void phiCycleOfTwoValuesIsKept() {
+        Node one = this.constructor.newConstInt(1);
+        Node two = this.constructor.newConstInt(2);
+        Block merge = merge();
+        Phi first = new Phi(merge);
+        Phi middle = new Phi(merge);
+        Phi last = phi(merge, middle, two);
+        first.appendOperand(one);
+        first.appendOperand(middle);
+        middle.appendOperand(last);
+        middle.appendOperand(first);
+        Node sum = new AddNode(merge, first, last);
+
+        this.constructor.finish();
+
+        assertSame(first, sum.predecessor(BinaryOperationNode.LEFT));
+        assertSame(last, sum.predecessor(BinaryOperationNode.RIGHT));
+        assertSame(last, middle.predecessor(0));
+        assertSame(first, middle.predecessor(1));
+    }
+
+    @Test
+    void redundantInnerCycleOfPhiCycleIsRemoved() {
+        Node one = this.constructor.newConstInt(1);
+        Node two = this.constructor.newConstInt(2);
+        Block merge = merge();
+        // outer, other and inner merge one and two, while inner and loop only carry the value of outer
+        Phi outer = new Phi(merge);
+        Phi inner = new Phi(merge);
+        Phi loop = phi(merge, inner, inner);
+        Phi other = phi(merge, inner, two);
+        outer.appendOperand(one);
+        outer.appendOperand(other);
+        inner.appendOperand(outer);
+        inner.appendOperand(loop);
+
+        this.constructor.finish();
+
+        assertSame(outer, other.predecessor(0));
+        assertSame(two, other.predecessor(1));
+        assertSame(other, outer.predecessor(1));
+        assertDetached(inner);
+        assertDetached(loop);
+    }
+
+    @Test
+    void rewiredUsersAreFoundByValueNumbering() {
+        GraphConstructor numbering = new GraphConstructor(new LocalValueNumbering(), "g", new DebugContext(false));
+        IrGraph graph = numbering.graph();
+        Node one = numbering.newConstInt(1);
+        Block merge = new Block(graph);
+        jump(graph.startBlock(), merge);
+        jump(graph.startBlock(), merge);
+        Phi phi = new Phi(merge);
+        Node sum = numbering.newAdd(phi, one);
+        phi.appendOperand(one);
+        phi.appendOperand(one);
+
+        assertSame(one, numbering.tryRemoveTrivialPhi(phi));
+
+        assertSame(one, sum.predecessor(BinaryOperationNode.LEFT));
+        assertSame(sum, numbering.newAdd(one, one));
+    }
+
+    // there are no jumps yet, any node of the predecessor block stands for the control flow edge
+    private static void jump(Block from, Block to) {
+        to.addPredecessor(new ConstIntNode(from, 0));
+    }
+
+    private Block merge() {
+        Block merge = new Block(this.graph);
+        jump(this.start, merge);
+        jump(this.start, merge);
+        return merge;
+    }
+
+    private static Phi phi(Block block, Node first, Node second) {
+        Phi phi = new Phi(block);
+        phi.appendOperand(first);
+        phi.appendOperand(second);
+        return phi;
+    }
+
+    private void assertDetached(Phi phi) {
+        assertEquals(0, phi.predecessorCount());
+        assertEquals(0, this.graph.successorCount(phi));
+    }
+}
@@ -0,0 +1,151 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.SsaTranslation;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import edu.kit.kastel.vads.compiler.lexer.Lexer;
+import edu.kit.kastel.vads.compiler.parser.Parser;
+import edu.kit.kastel.vads.compiler.parser.TokenSource;
+import edu.kit.kastel.vads.compiler.parser.ast.FlatAst;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlgebraicSimplificationTest {
+    private final IrGraph graph = new IrGraph("f");
+    private final Block start = this.graph.startBlock();
+    private final Block block = new Block(this.graph);
+    private final Node sideEffect = new ProjNode(this.start, new StartNode(this.start),
+        ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    // a value that is not known while compiling
+    private final Node x = new Phi(this.block);
+
+    @Test
+    void addingZeroIsOperand() {
+        assertSimplified(this.x, new AddNode(this.block, this.x, constant(0)));
+        assertSimplified(this.x, new AddNode(this.block, constant(0), this.x));
+    }
+
+    @Test
+    void subtractingZeroIsOperand() {
+        assertSimplified(this.x, new SubNode(this.block, this.x, constant(0)));
+    }
+
+    @Test
+    void subtractingFromItselfIsZero() {
+        assertEquals(0, simplifyToConstant(new SubNode(this.block, this.x, this.x)));
+    }
+
+    @Test
+    void doubleNegationIsOperand() {
+        Node negated = new SubNode(this.block, constant(0), this.x);
+        assertSimplified(this.x, new SubNode(this.block, constant(0), negated));
+    }
+
+    @Test
+    void multiplyingByOneIsOperand() {
+        assertSimplified(this.x, new MulNode(this.block, this.x, constant(1)));
+        assertSimplified(this.x, new MulNode(this.block, constant(1), this.x));
+    }
+
+    @Test
+    void multiplyingByZeroIsZero() {
+        Node zero = constant(0);
+        assertSimplified(zero, new MulNode(this.block, this.x, zero));
+        assertSimplified(zero, new MulNode(this.block, zero, this.x));
+    }
+
+    @Test
+    void dividingByOneIsOperand() {
+        assertSimplified(this.x, new DivNode(this.block, this.x, constant(1), this.sideEffect));
+    }
+
+    @Test
+    void moduloOneIsZero() {
+        assertEquals(0, simplifyToConstant(new ModNode(this.block, this.x, constant(1), this.sideEffect)));
+    }
+
+    @Test
+    void operationsWithoutIdentityAreKept() {
+        Node y = new Phi(this.block);
+        List<Node> nodes = List.of(
+            new SubNode(this.block, constant(0), this.x),
+            new SubNode(this.block, this.x, y),
+            new SubNode(this.block, constant(0), new SubNode(this.block, constant(1), this.x)),
+            new AddNode(this.block, this.x, constant(1)),
+            new MulNode(this.block, this.x, constant(2)),
+            // dividing Integer.MIN_VALUE by -1 traps, and x / x traps for 0
+            new DivNode(this.block, this.x, constant(-1), this.sideEffect),
+            new ModNode(this.block, this.x, constant(-1), this.sideEffect),
+            new DivNode(this.block, this.x, this.x, this.sideEffect),
+            new ModNode(this.block, this.x, this.x, this.sideEffect),
+            new DivNode(this.block, constant(0), this.x, this.sideEffect)
+        );
+        for (Node node : nodes) {
+            assertSame(node, new AlgebraicSimplification().transform(node), node::toString);
+            assertEquals(node instanceof DivNode || node instanceof ModNode ? 3 : 2, node.predecessorCount());
+        }
+    }
+
+    @Test
+    void trappingDivisionStaysOnSideEffectChain() {
+        List<String> expressions = List.of(
+            "(1 / 0) * 0",
+            "0 * (1 % 0)",
+            "(-2147483648 / -1) * 0",
+            "(-2147483648 % -1) * 0",
+            "(1 / 0) % 1",
+            "0 * (-2147483648 / -1)"
+        );
+        for (String expression : expressions) {
+            IrGraph graph = translate("int main() { return " + expression + "; }");
+            ReturnNode ret = assertInstanceOf(ReturnNode.class, graph.endBlock().predecessor(0));
+
+            ConstIntNode result = assertInstanceOf(ConstIntNode.class, ret.predecessor(ReturnNode.RESULT), expression);
+            assertEquals(0, result.value(), expression);
+            // the division is still executed before the return, so the program fails
+            Node division = ret.predecessor(ReturnNode.SIDE_EFFECT).predecessor(ProjNode.IN);
+            assertTrue(division instanceof DivNode || division instanceof ModNode, expression);
+        }
+    }
+
+    private static IrGraph translate(String program) {
+        FlatAst ast = new Parser(TokenSource.streaming(Lexer.forString(program))).parseFlatProgram();
+        Optimizer optimizer = new ConstantFolding()
+            .andThen(new AlgebraicSimplification())
+            .andThen(new LocalValueNumbering());
+        return new SsaTranslation(ast, ast.firstChild(ast.root()), optimizer, false).translate();
+    }
+
+    private void assertSimplified(Node expected, Node node) {
+        assertSame(expected, new AlgebraicSimplification().transform(node), node::toString);
+        assertEquals(0, node.predecessorCount());
+    }
+
+    private int simplifyToConstant(Node node) {
+        ConstIntNode result = assertInstanceOf(ConstIntNode.class, new AlgebraicSimplification().transform(node));
+        assertSame(this.start, result.block());
+        assertEquals(0, node.predecessorCount());
+        return result.value();
+    }
+
+    private Node constant(int value) {
+        return new ConstIntNode(this.start, value);
+    }
+}
@@ -0,0 +1,120 @@
+package edu.kit.kastel.vads.compiler.ir.optimize;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.Phi;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ConstantFoldingTest {
+    private static final int MIN = Integer.MIN_VALUE;
+    private static final int MAX = Integer.MAX_VALUE;
+
+    private final IrGraph graph = new IrGraph("f");
+    private final Block start = this.graph.startBlock();
+    private final Block block = new Block(this.graph);
+    private final Node sideEffect = new ProjNode(this.start, new StartNode(this.start),
+        ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+
+    @Test
+    void additionWrapsAround() {
+        assertEquals(3, fold(new AddNode(this.block, constant(1), constant(2))));
+        assertEquals(MIN, fold(new AddNode(this.block, constant(MAX), constant(1))));
+        assertEquals(-2, fold(new AddNode(this.block, constant(MAX), constant(MAX))));
+    }
+
+    @Test
+    void subtractionWrapsAround() {
+        assertEquals(-1, fold(new SubNode(this.block, constant(1), constant(2))));
+        assertEquals(MAX, fold(new SubNode(this.block, constant(MIN), constant(1))));
+        assertEquals(MIN, fold(new SubNode(this.block, constant(0), constant(MIN))));
+    }
+
+    @Test
+    void multiplicationWrapsAround() {
+        assertEquals(-6, fold(new MulNode(this.block, constant(2), constant(-3))));
+        assertEquals(0, fold(new MulNode(this.block, constant(65536), constant(65536))));
+        assertEquals(MIN, fold(new MulNode(this.block, constant(MIN), constant(-1))));
+    }
+
+    @Test
+    void divisionTruncatesTowardsZero() {
+        assertEquals(-3, fold(div(7, -2)));
+        assertEquals(-3, fold(div(-7, 2)));
+        assertEquals(3, fold(div(-7, -2)));
+        assertEquals(MIN, fold(div(MIN, 1)));
+        assertEquals(1 << 30, fold(div(MIN, -2)));
+        assertEquals(-MAX, fold(div(MAX, -1)));
+    }
+
+    @Test
+    void moduloHasSignOfDividend() {
+        assertEquals(-1, fold(mod(-7, 2)));
+        assertEquals(1, fold(mod(7, -2)));
+        assertEquals(0, fold(mod(MIN, 1)));
+        assertEquals(0, fold(mod(MIN, -2)));
+        assertEquals(MIN + 1, fold(mod(MIN + 1, MIN)));
+    }
+
+    @Test
+    void trappingDivisionsAreKept() {
+        for (Node node : new Node[] {div(1, 0), div(0, 0), mod(1, 0), mod(0, 0), div(MIN, -1), mod(MIN, -1)}) {
+            Node left = node.predecessor(BinaryOperationNode.LEFT);
+            Node right = node.predecessor(BinaryOperationNode.RIGHT);
+
+            assertSame(node, new ConstantFolding().transform(node), node::toString);
+
+            assertSame(left, node.predecessor(BinaryOperationNode.LEFT));
+            assertSame(right, node.predecessor(BinaryOperationNode.RIGHT));
+            assertSame(this.sideEffect, node.predecessor(DivNode.SIDE_EFFECT));
+        }
+    }
+
+    @Test
+    void nonConstantOperandsAreKept() {
+        Node value = new Phi(this.block);
+        Node node = new AddNode(this.block, value, constant(1));
+
+        assertSame(node, new ConstantFolding().transform(node));
+        assertSame(value, node.predecessor(BinaryOperationNode.LEFT));
+    }
+
+    @Test
+    void foldedNodeIsReplacedByConstantInStartBlock() {
+        Node node = new AddNode(this.block, constant(1), constant(2));
+
+        ConstIntNode result = assertInstanceOf(ConstIntNode.class, new ConstantFolding().transform(node));
+
+        assertSame(this.start, result.block());
+        assertEquals(0, node.predecessorCount());
+    }
+
+    private int fold(Node node) {
+        return assertInstanceOf(ConstIntNode.class, new ConstantFolding().transform(node), node::toString).value();
+    }
+
+    private Node div(int dividend, int divisor) {
+        return new DivNode(this.block, constant(dividend), constant(divisor), this.sideEffect);
+    }
+
+    private Node mod(int dividend, int divisor) {
+        return new ModNode(this.block, constant(dividend), constant(divisor), this.sideEffect);
+    }
+
+    private Node constant(int value) {
+        return new ConstIntNode(this.start, value);
+    }
+}
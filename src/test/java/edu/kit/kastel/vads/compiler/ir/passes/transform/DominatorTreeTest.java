@@ -0,0 +1,99 @@
+package edu.kit.kastel.vads.compiler.ir.passes.transform;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.util.NodeMap;
+import edu.kit.kastel.vads.compiler.ir.util.NodeSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DominatorTreeTest {
+    private final IrGraph graph = new IrGraph("f");
+    private final Block start = this.graph.startBlock();
+    private final NodeSet blocks = new NodeSet(this.graph);
+
+    DominatorTreeTest() {
+        this.blocks.add(this.start);
+    }
+
+    @Test
+    void diamondIsDominatedByItsEntry() {
+        Block left = block(this.start);
+        Block right = block(this.start);
+        Block merge = block(left, right);
+
+        NodeMap<List<Block>> children = children();
+
+        assertEquals(Set.of(left, right, merge), Set.copyOf(children.get(this.start)));
+        assertNull(children.get(left));
+        assertNull(children.get(right));
+        assertNull(children.get(merge));
+    }
+
+    @Test
+    void loopHeaderDominatesBodyAndExit() {
+        Block header = block(this.start);
+        Block body = block(header);
+        jump(body, header);
+        Block exit = block(header);
+
+        NodeMap<List<Block>> children = children();
+
+        assertEquals(List.of(header), children.get(this.start));
+        assertEquals(Set.of(body, exit), Set.copyOf(children.get(header)));
+        assertNull(children.get(body));
+    }
+
+    @Test
+    void chainIsDominatedStepByStep() {
+        Block first = block(this.start);
+        Block second = block(first);
+
+        NodeMap<List<Block>> children = children();
+
+        assertEquals(List.of(first), children.get(this.start));
+        assertEquals(List.of(second), children.get(first));
+    }
+
+    @Test
+    void unreachableBlocksAreNotInTree() {
+        Block dead = block();
+        Block deadSuccessor = block(dead);
+        // the edge from the unreachable block does not take part in the dominance of the merge
+        Block merge = block(this.start, dead);
+        Block next = block(merge);
+
+        NodeMap<List<Block>> children = children();
+
+        assertEquals(List.of(merge), children.get(this.start));
+        assertEquals(List.of(next), children.get(merge));
+        assertNull(children.get(dead));
+        assertNull(children.get(deadSuccessor));
+        assertFalse(children.values().stream().anyMatch(c -> c.contains(dead) || c.contains(deadSuccessor)));
+    }
+
+    private NodeMap<List<Block>> children() {
+        return new DominatorTree(this.graph, this.blocks).children();
+    }
+
+    private Block block(Block... predecessors) {
+        Block block = new Block(this.graph);
+        for (Block predecessor : predecessors) {
+            jump(predecessor, block);
+        }
+        this.blocks.add(block);
+        return block;
+    }
+
+    // there are no jumps yet, any node of the predecessor block stands for the control flow edge
+    private static void jump(Block from, Block to) {
+        to.addPredecessor(new StartNode(from));
+    }
+}
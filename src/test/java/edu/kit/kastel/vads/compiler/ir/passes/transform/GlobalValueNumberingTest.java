@@ -0,0 +1,166 @@
+package edu.kit.kastel.vads.compiler.ir.passes.transform;
+
+import edu.kit.kastel.vads.compiler.ir.IrGraph;
+import edu.kit.kastel.vads.compiler.ir.node.AddNode;
+import edu.kit.kastel.vads.compiler.ir.node.BinaryOperationNode;
+import edu.kit.kastel.vads.compiler.ir.node.Block;
+import edu.kit.kastel.vads.compiler.ir.node.ConstIntNode;
+import edu.kit.kastel.vads.compiler.ir.node.DivNode;
+import edu.kit.kastel.vads.compiler.ir.node.ModNode;
+import edu.kit.kastel.vads.compiler.ir.node.MulNode;
+import edu.kit.kastel.vads.compiler.ir.node.Node;
+import edu.kit.kastel.vads.compiler.ir.node.ProjNode;
+import edu.kit.kastel.vads.compiler.ir.node.ReturnNode;
+import edu.kit.kastel.vads.compiler.ir.node.StartNode;
+import edu.kit.kastel.vads.compiler.ir.node.SubNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class GlobalValueNumberingTest {
+    private final IrGraph graph = new IrGraph("f");
+    private final Block start = this.graph.startBlock();
+    private final Node sideEffect = new ProjNode(this.start, new StartNode(this.start),
+        ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+    private final Node one = new ConstIntNode(this.start, 1);
+    private final Node two = new ConstIntNode(this.start, 2);
+
+    @Test
+    void valueOfDominatingBlockIsReused() {
+        Block next = block(this.start);
+        Node dominating = new SubNode(this.start, this.one, this.two);
+        Node dominated = new SubNode(next, this.one, this.two);
+        ReturnNode inStart = ret(this.start, dominating);
+        ReturnNode inNext = ret(next, dominated);
+
+        transform();
+
+        assertSame(dominating, inStart.predecessor(ReturnNode.RESULT));
+        assertSame(dominating, inNext.predecessor(ReturnNode.RESULT));
+        assertDetached(dominated);
+    }
+
+    @Test
+    void valuesOfSiblingsAreKept() {
+        Block left = block(this.start);
+        Block right = block(this.start);
+        Block merge = block(left, right);
+        Node inLeft = new SubNode(left, this.one, this.two);
+        Node inRight = new SubNode(right, this.one, this.two);
+        Node inMerge = new SubNode(merge, this.one, this.two);
+        ReturnNode leftReturn = ret(left, inLeft);
+        ReturnNode rightReturn = ret(right, inRight);
+        ReturnNode mergeReturn = ret(merge, inMerge);
+
+        transform();
+
+        assertSame(inLeft, leftReturn.predecessor(ReturnNode.RESULT));
+        assertSame(inRight, rightReturn.predecessor(ReturnNode.RESULT));
+        // neither sibling dominates the merge
+        assertSame(inMerge, mergeReturn.predecessor(ReturnNode.RESULT));
+    }
+
+    @Test
+    void valuesOfSameBlockAreMerged() {
+        Block next = block(this.start);
+        Node first = new SubNode(next, this.one, this.two);
+        Node second = new SubNode(next, this.one, this.two);
+        Node product = new MulNode(next, first, second);
+        ret(next, product);
+
+        transform();
+
+        assertSame(first, product.predecessor(BinaryOperationNode.LEFT));
+        assertSame(first, product.predecessor(BinaryOperationNode.RIGHT));
+        assertDetached(second);
+    }
+
+    @Test
+    void commutativeOperandsAreMergedInEitherOrder() {
+        Node sum = new AddNode(this.start, this.one, this.two);
+        Node swappedSum = new AddNode(this.start, this.two, this.one);
+        Node product = new MulNode(this.start, this.one, this.two);
+        Node swappedProduct = new MulNode(this.start, this.two, this.one);
+        Node difference = new SubNode(this.start, this.one, this.two);
+        Node swappedDifference = new SubNode(this.start, this.two, this.one);
+        Node sums = new MulNode(this.start, sum, swappedSum);
+        Node products = new MulNode(this.start, product, swappedProduct);
+        Node differences = new MulNode(this.start, difference, swappedDifference);
+        ret(this.start, new AddNode(this.start, new AddNode(this.start, sums, products), differences));
+
+        transform();
+
+        assertSame(sum, sums.predecessor(BinaryOperationNode.RIGHT));
+        assertSame(product, products.predecessor(BinaryOperationNode.RIGHT));
+        // subtraction is not commutative
+        assertSame(swappedDifference, differences.predecessor(BinaryOperationNode.RIGHT));
+    }
+
+    @Test
+    void divisionsAreMergedOnlyWithSameSideEffect() {
+        Block next = block(this.start);
+        Node dominating = new DivNode(this.start, this.one, this.two, this.sideEffect);
+        Node same = new DivNode(next, this.one, this.two, this.sideEffect);
+        Node afterSame = new ProjNode(next, same, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        // a later division on the side effect chain may trap at a different point, so it is kept
+        Node later = new DivNode(next, this.one, this.two, afterSame);
+        Node afterLater = new ProjNode(next, later, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        ret(this.start, this.sideEffect, new ProjNode(this.start, dominating, ProjNode.SimpleProjectionInfo.RESULT));
+        ret(next, afterLater, new ProjNode(next, later, ProjNode.SimpleProjectionInfo.RESULT));
+
+        transform();
+
+        assertSame(dominating, afterSame.predecessor(ProjNode.IN));
+        assertDetached(same);
+        assertSame(afterSame, later.predecessor(DivNode.SIDE_EFFECT));
+        assertSame(later, afterLater.predecessor(ProjNode.IN));
+    }
+
+    @Test
+    void modulosAreMergedOnlyWithSameSideEffect() {
+        Node first = new ModNode(this.start, this.one, this.two, this.sideEffect);
+        Node afterFirst = new ProjNode(this.start, first, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        Node second = new ModNode(this.start, this.one, this.two, afterFirst);
+        Node afterSecond = new ProjNode(this.start, second, ProjNode.SimpleProjectionInfo.SIDE_EFFECT);
+        Node sum = new AddNode(this.start,
+            new ProjNode(this.start, first, ProjNode.SimpleProjectionInfo.RESULT),
+            new ProjNode(this.start, second, ProjNode.SimpleProjectionInfo.RESULT));
+        ret(this.start, afterSecond, sum);
+
+        transform();
+
+        assertSame(first, afterFirst.predecessor(ProjNode.IN));
+        assertSame(second, afterSecond.predecessor(ProjNode.IN));
+        assertSame(first, sum.predecessor(BinaryOperationNode.LEFT).predecessor(ProjNode.IN));
+        assertSame(second, sum.predecessor(BinaryOperationNode.RIGHT).predecessor(ProjNode.IN));
+    }
+
+    private void transform() {
+        new GlobalValueNumbering().transform(this.graph);
+    }
+
+    private Block block(Block... predecessors) {
+        Block block = new Block(this.graph);
+        for (Block predecessor : predecessors) {
+            // there are no jumps yet, any node of the predecessor block stands for the control flow edge
+            block.addPredecessor(new StartNode(predecessor));
+        }
+        return block;
+    }
+
+    private ReturnNode ret(Block block, Node result) {
+        return ret(block, this.sideEffect, result);
+    }
+
+    private ReturnNode ret(Block block, Node sideEffect, Node result) {
+        ReturnNode ret = new ReturnNode(block, sideEffect, result);
+        this.graph.endBlock().addPredecessor(ret);
+        return ret;
+    }
+
+    private void assertDetached(Node node) {
+        assertEquals(0, node.predecessorCount());
+        assertEquals(0, this.graph.successorCount(node));
+    }
+}
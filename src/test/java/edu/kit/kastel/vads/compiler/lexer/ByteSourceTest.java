@@ -0,0 +1,122 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteSourceTest {
+    // longer than two words, so a match can be in the first word, a later one or the tail
+    private static final int LENGTH = 24;
+
+    @Test
+    void indexOfAnyFindsMatchAtEveryPosition() {
+        for (int length = 0; length <= LENGTH; length++) {
+            for (int match = 0; match < length; match++) {
+                byte[] bytes = filled(length, (byte) 'a');
+                bytes[match] = '*';
+                ByteSource source = source(bytes);
+                for (int from = 0; from <= length; from++) {
+                    assertEquals(expectedIndexOfAny(bytes, from, '\n', '\r', '/', '*'),
+                        source.indexOfAny(from, '\n', '\r', '/', '*'),
+                        "length " + length + ", match " + match + ", from " + from);
+                }
+            }
+        }
+    }
+
+    @Test
+    void indexOfAnyFindsFirstOfSeveralMatches() {
+        byte[] bytes = "ab/cd\nefghijklmno\rpq*".getBytes(StandardCharsets.US_ASCII);
+        ByteSource source = source(bytes);
+        for (int from = 0; from <= bytes.length; from++) {
+            assertEquals(expectedIndexOfAny(bytes, from, '\n', '\r', '/', '*'),
+                source.indexOfAny(from, '\n', '\r', '/', '*'), "from " + from);
+        }
+    }
+
+    @Test
+    void indexOfAnyReturnsLengthWithoutMatch() {
+        for (int length = 0; length <= LENGTH; length++) {
+            assertEquals(length, source(filled(length, (byte) 'a')).indexOfAny(0, '\n', '\r', '/', '*'));
+        }
+    }
+
+    @Test
+    void indexOfAnyIgnoresBytesThatOnlyDifferInHighBit() {
+        // 0x8A, 0x8D, 0xAF and 0xAA are '\n', '\r', '/' and '*' with the high bit set, e.g. in UTF-8 sequences
+        byte[] bytes = new byte[LENGTH];
+        byte[] lookalikes = {(byte) 0x8A, (byte) 0x8D, (byte) 0xAF, (byte) 0xAA};
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = lookalikes[i % lookalikes.length];
+        }
+        assertEquals(LENGTH, source(bytes).indexOfAny(0, '\n', '\r', '/', '*'));
+    }
+
+    @Test
+    void indexOfNoneFindsMismatchAtEveryPosition() {
+        for (int length = 0; length <= LENGTH; length++) {
+            for (int mismatch = 0; mismatch < length; mismatch++) {
+                byte[] bytes = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    bytes[i] = (byte) (i % 3 == 0 ? '\t' : ' ');
+                }
+                bytes[mismatch] = 'x';
+                ByteSource source = source(bytes);
+                for (int from = 0; from <= length; from++) {
+                    assertEquals(expectedIndexOfNone(bytes, from, ' ', '\t'), source.indexOfNone(from, ' ', '\t'),
+                        "length " + length + ", mismatch " + mismatch + ", from " + from);
+                }
+            }
+        }
+    }
+
+    @Test
+    void indexOfNoneTreatsHighBitBytesAsMismatch() {
+        for (int position = 0; position < LENGTH; position++) {
+            byte[] bytes = filled(LENGTH, (byte) ' ');
+            // ' ' with the high bit set
+            bytes[position] = (byte) 0xA0;
+            assertEquals(position, source(bytes).indexOfNone(0, ' ', '\t'));
+        }
+    }
+
+    @Test
+    void indexOfNoneReturnsLengthWithoutMismatch() {
+        for (int length = 0; length <= LENGTH; length++) {
+            assertEquals(length, source(filled(length, (byte) ' ')).indexOfNone(0, ' ', '\t'));
+        }
+    }
+
+    private static ByteSource source(byte[] bytes) {
+        return new ByteSource(MemorySegment.ofArray(bytes));
+    }
+
+    private static byte[] filled(int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+
+    // the char-wise scans the word-wise ones must agree with
+    private static int expectedIndexOfAny(byte[] bytes, int from, char a, char b, char c, char d) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == a || bytes[i] == b || bytes[i] == c || bytes[i] == d) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static int expectedIndexOfNone(byte[] bytes, int from, char a, char b) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] != a && bytes[i] != b) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+}
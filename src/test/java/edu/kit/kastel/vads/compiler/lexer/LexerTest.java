@@ -0,0 +1,174 @@
+package edu.kit.kastel.vads.compiler.lexer;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class LexerTest {
+
+    @Test
+    void tokenAfterWhitespaceStartsAtEveryWordOffset() {
+        for (int offset = 0; offset < 16; offset++) {
+            String source = " \t".repeat(offset / 2) + (offset % 2 == 0 ? "" : " ") + "x=1;";
+            List<String> tokens = lex(source);
+            assertEquals("Identifier x " + span(0, offset, 0, offset + 1), tokens.getFirst(), "offset " + offset);
+            assertEquals(lexBytes(source), tokens, "offset " + offset);
+        }
+    }
+
+    @Test
+    void tokenAfterCommentStartsAtEveryWordOffset() {
+        for (int offset = 4; offset < 20; offset++) {
+            String multiLine = "/*" + "*".repeat(offset - 4) + "*/x";
+            String singleLine = "//" + "/".repeat(offset - 2) + "\nx";
+            assertEquals("Identifier x " + span(0, offset, 0, offset + 1), lex(multiLine).getFirst(),
+                "offset " + offset);
+            assertEquals("Identifier x " + span(1, 0, 1, 1), lex(singleLine).getFirst(), "offset " + offset);
+            assertEquals(lexBytes(multiLine), lex(multiLine));
+            assertEquals(lexBytes(singleLine), lex(singleLine));
+        }
+    }
+
+    @Test
+    void unterminatedCommentIsErrorToken() {
+        for (String comment : List.of("/*", "/* int x;", "/* x\n y\r\n z *", "/*/", "/*" + "-".repeat(13))) {
+            String source = "int x; " + comment;
+            ErrorToken error = assertInstanceOf(ErrorToken.class, Lexer.forString(source).tokenize().token(3), comment);
+            assertEquals(comment, error.value());
+            assertEquals(lex(source), lexBytes(source), comment);
+        }
+    }
+
+    @Test
+    void unterminatedNestedCommentStartsAtLastOpening() {
+        // like the baseline lexer, the error covers the comment opened last
+        String source = "/* a /* nested */ still open";
+        ErrorToken error = assertInstanceOf(ErrorToken.class, Lexer.forString(source).tokenize().token(0));
+        assertEquals("/* nested */ still open", error.value());
+        assertEquals(lex(source), lexBytes(source));
+    }
+
+    @Test
+    void lineBreaksStartNewLines() {
+        // like the baseline lexer, "\r\n" counts as two line breaks
+        List<String> tokens = lex("a\nb\rc\r\nd\n\re");
+        assertEquals(List.of(
+            "Identifier a " + span(0, 0, 0, 1),
+            "Identifier b " + span(1, 0, 1, 1),
+            "Identifier c " + span(2, 0, 2, 1),
+            "Identifier d " + span(4, 0, 4, 1),
+            "Identifier e " + span(6, 0, 6, 1)), tokens);
+    }
+
+    @Test
+    void lineBreaksEndSingleLineComments() {
+        String source = "// x\ra\r\n// y\n// z\r\nb";
+        assertEquals(List.of("Identifier a " + span(1, 0, 1, 1), "Identifier b " + span(6, 0, 6, 1)), lex(source));
+        assertEquals(lex(source), lexBytes(source));
+    }
+
+    @Test
+    void bytesAndStringsLexTheSame() {
+        String[] fragments = {
+            "int", "x", "return", "123", "0x1F", "+", "-=", "/", "%", "*=", "(", ")", "{", "}", ";", "=",
+            " ", "  ", "\t", "\n", "\r", "\r\n", "// line comment\n", "/* block */", "/* multi\r\nline */",
+            "/* /* nested */ */", "/**/", "/*x*/", "#", "$", "abcdefghijklmnop", "        ",
+        };
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder source = new StringBuilder();
+            int count = random.nextInt(20);
+            for (int j = 0; j < count; j++) {
+                source.append(fragments[random.nextInt(fragments.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                // unterminated at the end
+                source.append(random.nextBoolean() ? "/* open" : "//");
+            }
+            String text = source.toString();
+            assertEquals(lex(text), lexBytes(text), text);
+        }
+    }
+
+    @Test
+    void bytesSkipNonAsciiInComments() {
+        String source = "a /* äöü   */ b // €\nc";
+        List<String> tokens = lexBytes(source);
+        assertEquals(3, tokens.size());
+        assertEquals("Identifier c " + span(1, 0, 1, 1), tokens.get(2));
+    }
+
+    @Test
+    void parallelChunksLexLikeSequential() {
+        String[] fragments = {
+            "int x = 1;\n", "return x;\n", "/* comment\n spanning\n lines */\n", "// line\n", "\n", "y -= 0x2A;\r\n",
+            "/* open\n", "*/ z\n", "/* /* nested\n */ */\n",
+        };
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder source = new StringBuilder();
+            int count = random.nextInt(40);
+            for (int j = 0; j < count; j++) {
+                source.append(fragments[random.nextInt(fragments.length)]);
+            }
+            String text = source.toString();
+            List<String> expected = describe(Lexer.forString(text).tokenize());
+            for (int chunkSize : new int[] {1, 7, 32}) {
+                assertEquals(expected, describe(Lexer.forString(text).tokenizeParallel(chunkSize)), text);
+                // streamed through a ring buffer, as the parser does
+                Lexer lexer = Lexer.forString(text);
+                lexer.lexInParallel(chunkSize);
+                TokenBuffer ring = lexer.ringBuffer(1);
+                List<String> streamed = new ArrayList<>();
+                while (lexer.lexNext(ring)) {
+                    streamed.add(describe(ring, ring.size() - 1));
+                }
+                assertEquals(expected, streamed, text);
+            }
+        }
+    }
+
+    private static String span(int startLine, int startColumn, int endLine, int endColumn) {
+        return "[" + startLine + ":" + startColumn + "|" + endLine + ":" + endColumn + "]";
+    }
+
+    private static List<String> lex(String source) {
+        return describe(Lexer.forString(source));
+    }
+
+    private static List<String> lexBytes(String source) {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        return describe(Lexer.forBytes(MemorySegment.ofArray(bytes)));
+    }
+
+    private static List<String> describe(TokenBuffer tokens) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            result.add(describe(tokens, i));
+        }
+        return result;
+    }
+
+    private static String describe(TokenBuffer tokens, int index) {
+        Token t = tokens.token(index);
+        return t.getClass().getSimpleName() + " " + t.asString() + " " + t.span() + " " + tokens.symbol(index);
+    }
+
+    private static List<String> describe(Lexer lexer) {
+        List<String> tokens = new ArrayList<>();
+        Optional<Token> token;
+        while ((token = lexer.nextToken()).isPresent()) {
+            Token t = token.get();
+            tokens.add(t.getClass().getSimpleName() + " " + t.asString() + " " + t.span());
+        }
+        return tokens;
+    }
+}